@@ -0,0 +1,69 @@
+package com.example.neura_search.benchmark;
+
+import com.example.neura_search.store.DocumentStore;
+import com.example.neura_search.store.StoredDocument;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write throughput of {@link DocumentStore#append}, which replaced per-document text files.
+ * Each iteration appends a fixed batch into a fresh store so disk usage stays bounded;
+ * the score is the time per batch, i.e. {@code APPENDS * bodyBytes} bytes written.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = DocumentStoreBenchmark.APPENDS)
+@Measurement(iterations = 10, batchSize = DocumentStoreBenchmark.APPENDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DocumentStoreBenchmark {
+	static final int APPENDS = 256;
+
+	@Param({"4096", "65536", "1048576"})
+	public int bodyBytes;
+
+	private Path workDir;
+	private Path body;
+	private DocumentStore documentStore;
+
+	@Setup(Level.Trial)
+	public void writeBody() throws IOException {
+		workDir = Files.createTempDirectory("bench-store-");
+		byte[] text = "the quick brown fox jumps over the lazy dog\n".repeat(bodyBytes / 44 + 1)
+				.substring(0, bodyBytes)
+				.getBytes(StandardCharsets.UTF_8);
+		body = Files.write(workDir.resolve("body.txt"), text);
+	}
+
+	@Setup(Level.Iteration)
+	public void openStore() throws IOException {
+		documentStore = new DocumentStore();
+		ReflectionTestUtils.setField(documentStore, "storeDir", Files.createTempDirectory(workDir, "store-").toString());
+		ReflectionTestUtils.setField(documentStore, "segmentMaxBytes", 256L * 1024 * 1024);
+		documentStore.open();
+	}
+
+	@TearDown(Level.Iteration)
+	public void closeStore() throws IOException {
+		documentStore.close();
+		try (var stores = Files.list(workDir)) {
+			stores.filter(Files::isDirectory).forEach(Fixtures::deleteRecursively);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteBody() {
+		Fixtures.deleteRecursively(workDir);
+	}
+
+	@Benchmark
+	public StoredDocument append() throws IOException {
+		return documentStore.append("bench", "text/plain", body);
+	}
+}
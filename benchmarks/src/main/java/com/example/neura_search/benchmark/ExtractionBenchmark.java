@@ -0,0 +1,125 @@
+package com.example.neura_search.benchmark;
+
+import com.example.neura_search.chunk.DocumentChunker;
+import com.example.neura_search.extraction.ExcelStreamingExtractor;
+import com.example.neura_search.extraction.ExtractorRegistry;
+import com.example.neura_search.extraction.ForkedExtractionPool;
+import com.example.neura_search.extraction.PdfExtractor;
+import com.example.neura_search.service.FileProcessingService;
+import com.example.neura_search.service.IndexingPipeline;
+import com.example.neura_search.store.DocumentStore;
+import com.example.neura_search.store.StoredDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link FileProcessingService#processFile} cost per upload: parsing, spooling the
+ * text, the store append and chunking. No indexers are attached, so search indexing is excluded.
+ * Sizes are PDF pages or XLSX rows; the large PDF is past the threshold for parallel page ranges.
+ * {@code isolation=forked} parses in sandbox worker JVMs, which shows the cost of the hand-off.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExtractionBenchmark {
+	private static final String PDF = "application/pdf";
+	private static final String XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+	@Param({"pdf", "xlsx"})
+	public String format;
+
+	@Param({"small", "medium", "large"})
+	public String size;
+
+	@Param({"inline", "forked"})
+	public String isolation;
+
+	private Path input;
+	private String contentType;
+	private Path workDir;
+	private DocumentStore documentStore;
+	private FileProcessingService fileProcessingService;
+	private ExecutorService parseExecutor;
+	private PdfExtractor pdfExtractor;
+	private ExtractorRegistry extractors;
+	private ForkedExtractionPool sandbox;
+
+	@Setup(Level.Trial)
+	public void generate() throws IOException {
+		byte[] bytes;
+		if (format.equals("pdf")) {
+			bytes = Fixtures.pdf(switch (size) {
+				case "small" -> 1;
+				case "medium" -> 20;
+				default -> 200;
+			});
+			contentType = PDF;
+		} else {
+			bytes = Fixtures.xlsx(switch (size) {
+				case "small" -> 100;
+				case "medium" -> 10_000;
+				default -> 100_000;
+			});
+			contentType = XLSX;
+		}
+		input = Files.write(Files.createTempFile("bench-input-", "." + format), bytes);
+	}
+
+	@Setup(Level.Trial)
+	public void startParsePool() {
+		parseExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		pdfExtractor = new PdfExtractor(0, 64, 16);
+		extractors = new ExtractorRegistry(List.of(pdfExtractor, new ExcelStreamingExtractor()));
+		sandbox = new ForkedExtractionPool(isolation.equals("forked"), 0, Duration.ofMinutes(5), "1g",
+				Long.MAX_VALUE, 100, 0, 64, 16);
+	}
+
+	@TearDown(Level.Trial)
+	public void stopParsePool() throws IOException {
+		parseExecutor.shutdownNow();
+		pdfExtractor.close();
+		sandbox.close();
+		Files.deleteIfExists(input);
+	}
+
+	@Setup(Level.Iteration)
+	public void openStore() throws IOException {
+		// A fresh store per iteration keeps disk usage bounded during long runs
+		workDir = Files.createTempDirectory("bench-extract-");
+		documentStore = new DocumentStore();
+		ReflectionTestUtils.setField(documentStore, "storeDir", workDir.resolve("store").toString());
+		ReflectionTestUtils.setField(documentStore, "segmentMaxBytes", 256L * 1024 * 1024);
+		documentStore.open();
+
+		IndexingPipeline pipeline = new IndexingPipeline(documentStore, new DocumentChunker(200, 40, 50),
+				extractors, List.of());
+		ReflectionTestUtils.setField(pipeline, "batchSize", 64);
+		fileProcessingService = new FileProcessingService(extractors, sandbox, documentStore, pipeline,
+				parseExecutor, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(fileProcessingService, "spoolDir", workDir.resolve("spool").toString());
+	}
+
+	@TearDown(Level.Iteration)
+	public void closeStore() throws IOException {
+		documentStore.close();
+		Fixtures.deleteRecursively(workDir);
+	}
+
+	@Benchmark
+	public StoredDocument processFile() throws Exception {
+		return fileProcessingService.processFile(input, contentType, "bench");
+	}
+}
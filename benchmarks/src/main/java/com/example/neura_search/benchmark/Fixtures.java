@@ -0,0 +1,108 @@
+package com.example.neura_search.benchmark;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic input documents, generated in memory so the benchmarks need no checked-in files.
+ */
+final class Fixtures {
+	private static final String[] WORDS = {
+			"search", "index", "document", "vector", "token", "segment", "query", "extract",
+			"ranking", "passage", "embedding", "latency", "throughput", "parser", "storage", "cluster"
+	};
+	private static final int LINES_PER_PAGE = 45;
+	private static final int WORDS_PER_LINE = 12;
+	private static final int COLUMNS = 8;
+
+	private Fixtures() {
+	}
+
+	static byte[] pdf(int pages) throws IOException {
+		Random random = new Random(pages);
+		try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			for (int p = 0; p < pages; p++) {
+				PDPage page = new PDPage();
+				document.addPage(page);
+				try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+					content.beginText();
+					content.setFont(PDType1Font.HELVETICA, 10);
+					content.setLeading(14);
+					content.newLineAtOffset(40, 750);
+					for (int line = 0; line < LINES_PER_PAGE; line++) {
+						content.showText(sentence(random, WORDS_PER_LINE));
+						content.newLine();
+					}
+					content.endText();
+				}
+			}
+			document.save(out);
+			return out.toByteArray();
+		}
+	}
+
+	static byte[] xlsx(int rows) throws IOException {
+		Random random = new Random(rows);
+		SXSSFWorkbook workbook = new SXSSFWorkbook(1000);
+		try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			Sheet sheet = workbook.createSheet("data");
+			for (int r = 0; r < rows; r++) {
+				Row row = sheet.createRow(r);
+				for (int c = 0; c < COLUMNS; c++) {
+					if (c % 2 == 0) {
+						row.createCell(c).setCellValue(sentence(random, 3));
+					} else {
+						row.createCell(c).setCellValue(random.nextInt(1_000_000) / 100.0);
+					}
+				}
+			}
+			workbook.write(out);
+			return out.toByteArray();
+		} finally {
+			workbook.dispose();
+			workbook.close();
+		}
+	}
+
+	static void deleteRecursively(Path dir) {
+		if (!Files.exists(dir)) {
+			return;
+		}
+		try (Stream<Path> paths = Files.walk(dir)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+				try {
+					Files.delete(path);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String sentence(Random random, int words) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			if (i > 0) {
+				sb.append(' ');
+			}
+			sb.append(WORDS[random.nextInt(WORDS.length)]);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,193 @@
+package com.example.neura_search.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load against a running instance, for comparing the platform-thread and
+ * virtual-thread modes. Start the server once per mode ({@code spring.threads.virtual.enabled}
+ * false/true) and run this with a matching {@code load.label}; each run writes
+ * {@code target/load-<label>.json} with throughput, error counts and latency percentiles.
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml compile exec:java -Dexec.mainClass=com.example.neura_search.benchmark.HttpLoadTest \
+ *     -Dload.url=http://localhost:8080 -Dload.username=admin -Dload.password=secret \
+ *     -Dload.users=400 -Dload.duration=PT60S -Dload.label=virtual
+ * </pre>
+ *
+ * Each simulated user loops over a mix of searches, document reads and small PDF uploads,
+ * so request threads block on the database, file I/O and multipart spooling.
+ */
+public final class HttpLoadTest {
+	private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+	private static final String[] QUERIES = {"search", "vector index", "document storage", "latency throughput"};
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.connectTimeout(Duration.ofSeconds(10))
+			.build();
+	private final String baseUrl;
+	private final Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+	private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+	private final byte[] upload;
+	private String token;
+
+	private HttpLoadTest(String baseUrl) throws IOException {
+		this.baseUrl = baseUrl;
+		this.upload = Fixtures.pdf(2);
+	}
+
+	public static void main(String[] args) throws Exception {
+		String label = System.getProperty("load.label", "run");
+		int users = Integer.getInteger("load.users", 200);
+		Duration duration = Duration.parse(System.getProperty("load.duration", "PT60S"));
+
+		HttpLoadTest test = new HttpLoadTest(System.getProperty("load.url", "http://localhost:8080"));
+		test.signIn(System.getProperty("load.username", "admin"), System.getProperty("load.password", "admin"));
+
+		long started = System.nanoTime();
+		long deadline = started + duration.toNanos();
+		try (ExecutorService simulatedUsers = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < users; i++) {
+				simulatedUsers.submit(() -> test.loop(deadline));
+			}
+		}
+		double seconds = (System.nanoTime() - started) / 1e9;
+
+		String report = test.report(label, users, seconds);
+		Path out = Path.of("target", "load-" + label + ".json");
+		Files.createDirectories(out.getParent());
+		Files.writeString(out, report);
+		System.out.println(report);
+	}
+
+	private void signIn(String username, String password) throws Exception {
+		String body = "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+		HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/signin"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build(), HttpResponse.BodyHandlers.ofString());
+		Matcher matcher = TOKEN.matcher(response.body());
+		if (response.statusCode() != 200 || !matcher.find()) {
+			throw new IllegalStateException("Sign-in failed: " + response.statusCode() + " " + response.body());
+		}
+		token = matcher.group(1);
+	}
+
+	private void loop(long deadline) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (System.nanoTime() < deadline) {
+			int pick = random.nextInt(10);
+			if (pick < 6) {
+				String q = URLEncoder.encode(QUERIES[random.nextInt(QUERIES.length)], StandardCharsets.UTF_8);
+				call("search", get("/api/search?q=" + q + "&limit=10"));
+			} else if (pick < 9) {
+				call("read", get("/api/files/" + (1 + random.nextInt(50))));
+			} else {
+				call("upload", multipart());
+			}
+		}
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.header("Authorization", "Bearer " + token)
+				.timeout(Duration.ofSeconds(60))
+				.GET()
+				.build();
+	}
+
+	private HttpRequest multipart() {
+		String boundary = UUID.randomUUID().toString();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		body.writeBytes(("--" + boundary + "\r\n"
+				+ "Content-Disposition: form-data; name=\"file\"; filename=\"load.pdf\"\r\n"
+				+ "Content-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+		body.writeBytes(upload);
+		// Unique trailer bytes so uploads are not short-circuited by content deduplication
+		body.writeBytes(("\n%" + UUID.randomUUID() + "\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+		return HttpRequest.newBuilder(URI.create(baseUrl + "/api/files/upload"))
+				.header("Authorization", "Bearer " + token)
+				.header("Content-Type", "multipart/form-data; boundary=" + boundary)
+				.timeout(Duration.ofSeconds(60))
+				.POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+				.build();
+	}
+
+	private void call(String operation, HttpRequest request) {
+		long start = System.nanoTime();
+		try {
+			HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+			// 404 is expected for reads of ids that were never stored; 429 is load shedding
+			if (response.statusCode() >= 500 || response.statusCode() == 429) {
+				errors.computeIfAbsent(operation + "." + response.statusCode(), k -> new AtomicLong()).incrementAndGet();
+			}
+		} catch (Exception e) {
+			errors.computeIfAbsent(operation + "." + e.getClass().getSimpleName(), k -> new AtomicLong()).incrementAndGet();
+		}
+		long elapsed = System.nanoTime() - start;
+		List<Long> samples = latencies.computeIfAbsent(operation, k -> new ArrayList<>());
+		synchronized (samples) {
+			samples.add(elapsed);
+		}
+	}
+
+	private String report(String label, int users, double seconds) {
+		StringBuilder json = new StringBuilder();
+		json.append("{\n  \"label\": \"").append(label).append("\",\n");
+		json.append("  \"users\": ").append(users).append(",\n");
+		json.append("  \"seconds\": ").append(String.format("%.1f", seconds)).append(",\n");
+		json.append("  \"operations\": {");
+		String separator = "\n";
+		for (Map.Entry<String, List<Long>> entry : new TreeMap<>(latencies).entrySet()) {
+			long[] sorted = entry.getValue().stream().mapToLong(Long::longValue).toArray();
+			Arrays.sort(sorted);
+			json.append(separator).append("    \"").append(entry.getKey()).append("\": {")
+					.append("\"count\": ").append(sorted.length)
+					.append(", \"throughput\": ").append(String.format("%.1f", sorted.length / seconds))
+					.append(", \"p50Ms\": ").append(percentileMillis(sorted, 0.50))
+					.append(", \"p95Ms\": ").append(percentileMillis(sorted, 0.95))
+					.append(", \"p99Ms\": ").append(percentileMillis(sorted, 0.99))
+					.append(", \"maxMs\": ").append(percentileMillis(sorted, 1.0))
+					.append('}');
+			separator = ",\n";
+		}
+		json.append("\n  },\n  \"errors\": {");
+		separator = "\n";
+		for (Map.Entry<String, AtomicLong> entry : new TreeMap<>(errors).entrySet()) {
+			json.append(separator).append("    \"").append(entry.getKey()).append("\": ").append(entry.getValue().get());
+			separator = ",\n";
+		}
+		return json.append("\n  }\n}\n").toString();
+	}
+
+	private static String percentileMillis(long[] sorted, double percentile) {
+		if (sorted.length == 0) {
+			return "0";
+		}
+		int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+		return String.format("%.2f", sorted[Math.max(0, index)] / 1e6);
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.neura_search.benchmark;
+
+import com.example.neura_search.security.JwtTokenProvider;
+import com.example.neura_search.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification cost. With {@code cacheSize} 0 every call verifies the
+ * signature; otherwise repeated presentations of the same token hit the claims cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+	@Param({"0", "10000"})
+	public int cacheSize;
+
+	private JwtTokenProvider tokenProvider;
+	private UserPrincipal principal;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		tokenProvider = new JwtTokenProvider(new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "benchmarkSecretKeyThatIsLongEnoughForHmacSha256Signing");
+		ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 900_000L);
+		ReflectionTestUtils.setField(tokenProvider, "cacheMaxSize", cacheSize);
+		ReflectionTestUtils.invokeMethod(tokenProvider, "init");
+
+		principal = new UserPrincipal(1L, "bench", "bench@example.com", "", 0,
+				List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")));
+		token = tokenProvider.createToken(principal);
+	}
+
+	@Benchmark
+	public String create() {
+		return tokenProvider.createToken(principal);
+	}
+
+	@Benchmark
+	public boolean validate() {
+		return tokenProvider.validateToken(token);
+	}
+
+	@Benchmark
+	public Optional<Claims> parse() {
+		return tokenProvider.parseClaims(token);
+	}
+}
@@ -0,0 +1,89 @@
+package com.example.neura_search.benchmark;
+
+import com.example.neura_search.security.AsyncAuthenticator;
+import com.example.neura_search.security.UserPrincipal;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign-in throughput with more concurrent callers than cores: BCrypt on the caller's
+ * thread versus the bounded hashing pool, which rejects once its queue is full.
+ * The rejected counter shows how much of the burst was shed instead of queued.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class LoginBenchmark {
+	private static final String PASSWORD = "correct horse battery staple";
+
+	private AuthenticationManager authenticationManager;
+	private ThreadPoolExecutor executor;
+	private AsyncAuthenticator asyncAuthenticator;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Outcome {
+		public long accepted;
+		public long rejected;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			accepted = 0;
+			rejected = 0;
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+		String hash = encoder.encode(PASSWORD);
+		DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+		// A fresh principal per lookup, since the provider erases credentials after use
+		provider.setUserDetailsService(username -> new UserPrincipal(1L, username, username + "@example.com",
+				hash, 0, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+		provider.setPasswordEncoder(encoder);
+		authenticationManager = new ProviderManager(provider);
+
+		int cores = Runtime.getRuntime().availableProcessors();
+		executor = new ThreadPoolExecutor(cores, cores, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(64), new ThreadPoolExecutor.AbortPolicy());
+		asyncAuthenticator = new AsyncAuthenticator(authenticationManager, executor);
+	}
+
+	@TearDown
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Benchmark
+	public Object callerThread() {
+		return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken("bench", PASSWORD));
+	}
+
+	@Benchmark
+	public Object boundedPool(Outcome outcome) {
+		try {
+			Object result = asyncAuthenticator.authenticate("bench", PASSWORD).join();
+			outcome.accepted++;
+			return result;
+		} catch (RejectedExecutionException e) {
+			outcome.rejected++;
+			return e;
+		}
+	}
+}
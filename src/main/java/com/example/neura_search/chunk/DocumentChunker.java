@@ -0,0 +1,200 @@
+package com.example.neura_search.chunk;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Splits streamed document text into overlapping chunks sized by a token budget.
+ * Prose is cut at sentence and paragraph boundaries; spreadsheet text is cut into
+ * blocks of rows and never across sheets (the Excel extractor separates sheets with
+ * a form feed). Only the current chunk is held in memory.
+ */
+@Component
+public class DocumentChunker {
+
+    public enum Mode {
+        PROSE,
+        ROWS
+    }
+
+    private final int maxTokens;
+    private final int overlapTokens;
+    private final int rowsPerChunk;
+    private final int maxUnitChars;
+
+    public DocumentChunker(@Value("${app.chunk.max-tokens:200}") int maxTokens,
+                           @Value("${app.chunk.overlap-tokens:40}") int overlapTokens,
+                           @Value("${app.chunk.rows-per-chunk:50}") int rowsPerChunk) {
+        this.maxTokens = maxTokens;
+        this.overlapTokens = overlapTokens;
+        this.rowsPerChunk = rowsPerChunk;
+        // Caps a sentence or row that has no usable boundary, e.g. a long run without whitespace
+        this.maxUnitChars = maxTokens * 16;
+    }
+
+    /**
+     * Reads {@code reader} to the end and hands chunks to {@code sink} in lists of at most {@code batchSize}.
+     */
+    public void chunk(long docId, Reader reader, Mode mode, int batchSize, Consumer<List<TextChunk>> sink)
+            throws IOException {
+        new Run(docId, mode, batchSize, sink).consume(reader);
+    }
+
+    private record Unit(String text, long byteStart, long byteEnd, int tokens) {
+    }
+
+    private final class Run {
+        private final long docId;
+        private final Mode mode;
+        private final int batchSize;
+        private final Consumer<List<TextChunk>> sink;
+
+        private final Deque<Unit> window = new ArrayDeque<>();
+        private int windowTokens;
+        private int freshUnits;
+        private int ordinal;
+        private List<TextChunk> batch;
+
+        private final StringBuilder unit = new StringBuilder();
+        private long unitStart;
+        private int unitTokens;
+        private long offset;
+        private char previous;
+        private boolean inWord;
+
+        Run(long docId, Mode mode, int batchSize, Consumer<List<TextChunk>> sink) {
+            this.docId = docId;
+            this.mode = mode;
+            this.batchSize = batchSize;
+            this.sink = sink;
+            this.batch = new ArrayList<>(batchSize);
+        }
+
+        void consume(Reader reader) throws IOException {
+            char[] buffer = new char[8192];
+            int n;
+            while ((n = reader.read(buffer)) != -1) {
+                for (int i = 0; i < n; i++) {
+                    accept(buffer[i]);
+                }
+            }
+            endUnit();
+            emit();
+            if (!batch.isEmpty()) {
+                sink.accept(batch);
+            }
+        }
+
+        private void accept(char ch) {
+            if (mode == Mode.ROWS && ch == '\f') {
+                endUnit();
+                emit();
+                window.clear();
+                windowTokens = 0;
+                offset += 1;
+                unitStart = offset;
+                return;
+            }
+
+            unit.append(ch);
+            offset += utf8Length(ch);
+            boolean whitespace = Character.isWhitespace(ch);
+            if (!whitespace && !inWord) {
+                unitTokens++;
+            }
+            inWord = !whitespace;
+
+            boolean boundary;
+            if (mode == Mode.ROWS) {
+                boundary = ch == '\n';
+            } else {
+                boundary = (whitespace && (previous == '.' || previous == '!' || previous == '?'))
+                        || (ch == '\n' && previous == '\n');
+            }
+            boundary |= unitTokens >= maxTokens && whitespace;
+            boundary |= unit.length() >= maxUnitChars && !Character.isHighSurrogate(ch);
+            previous = ch;
+            if (boundary) {
+                endUnit();
+            }
+        }
+
+        private void endUnit() {
+            if (unit.isEmpty()) {
+                return;
+            }
+            Unit finished = new Unit(unit.toString(), unitStart, offset, unitTokens);
+            unit.setLength(0);
+            unitStart = offset;
+            unitTokens = 0;
+            inWord = false;
+
+            boolean full = windowTokens + finished.tokens() > maxTokens
+                    || (mode == Mode.ROWS && freshUnits >= rowsPerChunk);
+            if (full && freshUnits > 0) {
+                emit();
+            }
+            window.addLast(finished);
+            windowTokens += finished.tokens();
+            freshUnits++;
+        }
+
+        /**
+         * Emits the window as a chunk and keeps a tail of up to {@code overlapTokens}
+         * as the start of the next one (prose only).
+         */
+        private void emit() {
+            if (freshUnits == 0) {
+                return;
+            }
+            StringBuilder text = new StringBuilder();
+            for (Unit u : window) {
+                text.append(u.text());
+            }
+            if (!text.toString().isBlank()) {
+                batch.add(new TextChunk(docId, ordinal++, window.getFirst().byteStart(),
+                        window.getLast().byteEnd(), text.toString()));
+                if (batch.size() >= batchSize) {
+                    sink.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+
+            Deque<Unit> overlap = new ArrayDeque<>();
+            int overlapSize = 0;
+            if (mode == Mode.PROSE) {
+                while (window.size() > 1) {
+                    Unit last = window.removeLast();
+                    if (overlapSize + last.tokens() > overlapTokens) {
+                        break;
+                    }
+                    overlap.addFirst(last);
+                    overlapSize += last.tokens();
+                }
+            }
+            window.clear();
+            window.addAll(overlap);
+            windowTokens = overlapSize;
+            freshUnits = 0;
+        }
+    }
+
+    private static int utf8Length(char ch) {
+        if (ch < 0x80) {
+            return 1;
+        }
+        if (ch < 0x800) {
+            return 2;
+        }
+        // Each half of a surrogate pair accounts for half of the 4-byte encoding
+        return Character.isSurrogate(ch) ? 2 : 3;
+    }
+}
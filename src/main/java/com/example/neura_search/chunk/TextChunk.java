@@ -0,0 +1,15 @@
+package com.example.neura_search.chunk;
+
+/**
+ * A window of a stored document. Offsets are UTF-8 byte offsets into the document body,
+ * so the chunk can be read back straight from the store without decoding what precedes it.
+ */
+public record TextChunk(long docId, int ordinal, long byteStart, long byteEnd, String text) {
+
+    /**
+     * Stable identifier: the same document chunked with the same settings yields the same ids.
+     */
+    public String id() {
+        return docId + ":" + ordinal;
+    }
+}
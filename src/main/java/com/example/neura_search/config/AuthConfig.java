@@ -0,0 +1,88 @@
+package com.example.neura_search.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class AuthConfig {
+
+    @Value("${app.auth.hash-workers:0}")
+    private int hashWorkers;
+
+    @Value("${app.auth.hash-queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.auth.import-hash-workers:0}")
+    private int importHashWorkers;
+
+    /**
+     * Pool that runs password hashing for sign-in. BCrypt is pure CPU work, so more threads
+     * than cores only adds contention; a short queue absorbs bursts and anything beyond it is
+     * rejected immediately rather than parking request threads behind the hashes.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor authExecutor(MeterRegistry meterRegistry) {
+        int threads = hashWorkers > 0 ? hashWorkers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "auth-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "auth", Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * Finishes a sign-in once its hash has been checked: issuing the refresh token is a
+     * database insert, which must not occupy a hashing thread. Virtual threads, since the
+     * work is blocking I/O bounded by the connection pool.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService signInExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sign-in-", 0).factory());
+    }
+
+    /**
+     * Separate pool for hashing the passwords of bulk imports, half the cores by default, so
+     * an import cannot starve sign-in of hashing threads. The importer only submits one task
+     * per thread at a time, so the queue stays short without a bound.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor importHashExecutor(MeterRegistry meterRegistry) {
+        int threads = importHashWorkers > 0
+                ? importHashWorkers
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "import-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        new ExecutorServiceMetrics(executor, "import-hash", Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+}
@@ -2,8 +2,11 @@ package com.example.neura_search.config;
 
 import com.example.neura_search.model.ERole;
 import com.example.neura_search.model.Role;
+import com.example.neura_search.model.User;
 import com.example.neura_search.repository.RoleRepository;
+import com.example.neura_search.service.RoleCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.stereotype.Component;
@@ -16,6 +19,12 @@ public class DatabaseInitializer implements ApplicationListener<ContextRefreshed
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private RoleCache roleCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Override
     public void onApplicationEvent(ContextRefreshedEvent event) {
         if (alreadySetup)
@@ -23,13 +32,28 @@ public class DatabaseInitializer implements ApplicationListener<ContextRefreshed
 
         createRoleIfNotFound(ERole.ROLE_USER);
         createRoleIfNotFound(ERole.ROLE_ADMIN);
+        advanceUserIdSequence();
 
         alreadySetup = true;
     }
 
     private void createRoleIfNotFound(ERole name) {
-        if (!roleRepository.findByName(name).isPresent()) {
-            roleRepository.save(new Role(name));
+        Role role = roleRepository.findByName(name)
+                .orElseGet(() -> roleRepository.save(new Role(name)));
+        roleCache.put(role);
+    }
+
+    /**
+     * Moves the user id sequence past ids handed out before it existed (the column used to
+     * be AUTO_INCREMENT). MySQL has no sequences, so Hibernate keeps it in a one-row table.
+     */
+    private void advanceUserIdSequence() {
+        Long floor = jdbcTemplate.queryForObject(
+                "select coalesce(max(id), 0) + ? + 1 from users", Long.class, User.ID_ALLOCATION_SIZE);
+        int updated = jdbcTemplate.update(
+                "update " + User.ID_SEQUENCE + " set next_val = greatest(next_val, ?)", floor);
+        if (updated == 0) {
+            jdbcTemplate.update("insert into " + User.ID_SEQUENCE + " (next_val) values (?)", floor);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.example.neura_search.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@EnableScheduling
+public class IngestionConfig {
+
+    @Value("${app.ingest.workers:4}")
+    private int workers;
+
+    @Value("${app.ingest.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${app.ingest.parse-threads:0}")
+    private int parseThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.ingest.spool-dir:${java.io.tmpdir}/neura-search/spool}")
+    private String spoolDir;
+
+    /**
+     * The usual {@code spring.servlet.multipart.*} settings, except that uploads over the
+     * size threshold are buffered in the ingest spool directory unless a location is set,
+     * so accepting one is a rename rather than a copy.
+     */
+    @Bean
+    public MultipartConfigElement multipartConfigElement(MultipartProperties multipartProperties) throws IOException {
+        if (!StringUtils.hasText(multipartProperties.getLocation())) {
+            Path dir = Paths.get(spoolDir).toAbsolutePath();
+            Files.createDirectories(dir);
+            multipartProperties.setLocation(dir.toString());
+        }
+        return multipartProperties.createMultipartConfig();
+    }
+
+    /**
+     * Bounded pool for ingestion jobs. Once every worker is busy and the queue is full,
+     * submissions are rejected (AbortPolicy) so the controller can answer 429
+     * instead of letting spooled uploads pile up without limit. In virtual-thread mode
+     * the workers are virtual: they mostly wait on file I/O, the database and the parse pool.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor ingestionExecutor(MeterRegistry meterRegistry) {
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("ingest-", 1).factory()
+                : platformThreads("ingest-");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                workers,
+                workers,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+        // Queue depth and active threads, to size the pool against real load
+        new ExecutorServiceMetrics(executor, "ingest", Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * Platform threads for Tika/POI parsing, one per core by default. Parsing is CPU-bound,
+     * so running it here keeps it from occupying the carrier threads that virtual threads
+     * (request handling included) are scheduled on. Callers block until their parse is done,
+     * so the queue never holds more tasks than there are waiting callers.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor parseExecutor(MeterRegistry meterRegistry) {
+        int threads = parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                platformThreads("parse-"));
+        new ExecutorServiceMetrics(executor, "parse", Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+
+    private static ThreadFactory platformThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -2,21 +2,35 @@ package com.example.neura_search.controller;
 
 import com.example.neura_search.dto.AuthRequest;
 import com.example.neura_search.dto.AuthResponse;
+import com.example.neura_search.dto.RefreshRequest;
 import com.example.neura_search.dto.RegisterRequest;
 import com.example.neura_search.model.User;
+import com.example.neura_search.repository.UserRepository;
+import com.example.neura_search.security.AsyncAuthenticator;
 import com.example.neura_search.security.JwtTokenProvider;
+import com.example.neura_search.security.TokenRevocationService;
+import com.example.neura_search.security.UserPrincipal;
+import com.example.neura_search.service.RefreshTokenService;
 import com.example.neura_search.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,37 +38,113 @@ import java.util.stream.Collectors;
 public class AuthController {
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private AsyncAuthenticator asyncAuthenticator;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("signInExecutor")
+    private Executor signInExecutor;
+
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody AuthRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody AuthRequest loginRequest) {
+        // Covers time queued for the hashing pool as well as the hash itself
+        Timer.Sample login = Timer.start(meterRegistry);
+        CompletableFuture<Authentication> authentication;
+        try {
+            authentication = asyncAuthenticator.authenticate(loginRequest.getUsername(), loginRequest.getPassword());
+        } catch (RejectedExecutionException e) {
+            login.stop(loginTimer("rejected"));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Too many sign-in attempts in progress, retry later."));
+        }
+        return authentication
+                // Only the hash runs on the hashing pool; issuing the refresh token is a database insert
+                .<ResponseEntity<?>>thenApplyAsync(this::signedIn, signInExecutor)
+                .whenComplete((response, e) -> login.stop(loginTimer(e == null ? "success" : "failure")))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof AuthenticationException) {
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized: " + cause.getMessage());
+                    }
+                    return ResponseEntity.internalServerError().body("Error signing in: " + cause.getMessage());
+                });
+    }
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+    private Timer loginTimer(String outcome) {
+        return meterRegistry.timer("neura.auth.login", "outcome", outcome);
+    }
+
+    private ResponseEntity<?> signedIn(Authentication authentication) {
         String jwt = tokenProvider.createToken(authentication);
 
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        User user = userService.getUserRepository().findByUsername(userDetails.getUsername()).orElseThrow();
+        // The principal is the user loaded for the password check, so no second lookup is needed
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        User user = userRepository.getReferenceById(principal.getId());
 
-        List<String> roles = userDetails.getAuthorities().stream()
+        List<String> roles = principal.getAuthorities().stream()
                 .map(item -> item.getAuthority())
                 .collect(Collectors.toList());
 
         return ResponseEntity.ok(new AuthResponse(
                 jwt,
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
+                refreshTokenService.issue(user),
+                principal.getId(),
+                principal.getUsername(),
+                principal.getEmail(),
                 roles));
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest refreshRequest) {
+        try {
+            RefreshTokenService.IssuedTokens tokens = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+            List<String> roles = tokens.principal().getAuthorities().stream()
+                    .map(item -> item.getAuthority())
+                    .collect(Collectors.toList());
+
+            return ResponseEntity.ok(new AuthResponse(
+                    tokens.accessToken(),
+                    tokens.refreshToken(),
+                    tokens.principal().getId(),
+                    tokens.principal().getUsername(),
+                    tokens.principal().getEmail(),
+                    roles));
+        } catch (BadCredentialsException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/signout")
+    public ResponseEntity<?> signout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                     @RequestBody(required = false) RefreshRequest refreshRequest) {
+        if (StringUtils.hasText(authorization) && authorization.startsWith("Bearer ")) {
+            tokenProvider.parseClaims(authorization.substring(7)).ifPresent(claims ->
+                    revocationService.revoke(claims.getId(), claims.getExpiration().toInstant()));
+        }
+        if (refreshRequest != null && StringUtils.hasText(refreshRequest.getRefreshToken())) {
+            refreshTokenService.revokeFamily(refreshRequest.getRefreshToken());
+        }
+        return ResponseEntity.ok("Signed out successfully!");
+    }
+
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest signUpRequest) {
         User user = userService.registerUser(
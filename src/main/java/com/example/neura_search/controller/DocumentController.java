@@ -0,0 +1,52 @@
+package com.example.neura_search.controller;
+
+import com.example.neura_search.dto.DocumentQuery;
+import com.example.neura_search.security.DocumentAccessIndex;
+import com.example.neura_search.service.DocumentQueryService;
+import org.springframework.beans.propertyeditors.CustomCollectionEditor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/documents")
+public class DocumentController {
+    private final DocumentQueryService documentQueryService;
+    private final DocumentAccessIndex documentAccess;
+
+    public DocumentController(DocumentQueryService documentQueryService, DocumentAccessIndex documentAccess) {
+        this.documentQueryService = documentQueryService;
+        this.documentAccess = documentAccess;
+    }
+
+    /**
+     * Keeps each filter value whole; the default conversion would split "Doe, Jane" at the comma.
+     */
+    @InitBinder
+    void initBinder(WebDataBinder binder) {
+        binder.registerCustomEditor(List.class, new CustomCollectionEditor(List.class));
+    }
+
+    /**
+     * Lists the documents the caller may read (every document for admins) matching the
+     * given metadata filters, with facet counts over all matches.
+     */
+    @GetMapping
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> listDocuments(DocumentQuery query, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(documentQueryService.query(query, documentAccess.readableBy(authentication)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error listing documents: " + e.getMessage());
+        }
+    }
+}
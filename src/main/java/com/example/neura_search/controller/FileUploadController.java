@@ -1,29 +1,285 @@
 package com.example.neura_search.controller;
 
-import com.example.neura_search.service.FileProcessingService;
+import com.example.neura_search.dto.DedupStatsResponse;
+import com.example.neura_search.dto.JobStatusResponse;
+import com.example.neura_search.model.ERole;
+import com.example.neura_search.model.IngestionJob;
+import com.example.neura_search.repository.UserRepository;
+import com.example.neura_search.security.DocumentAccessIndex;
+import com.example.neura_search.service.BatchIngestionService;
+import com.example.neura_search.service.IndexingPipeline;
+import com.example.neura_search.service.IngestionJobService;
+import com.example.neura_search.store.DocumentStore;
+import com.example.neura_search.store.FingerprintIndex;
+import com.example.neura_search.store.StoredDocument;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 
 @RestController
 @RequestMapping("/api/files")
 public class FileUploadController {
-    private final FileProcessingService fileProcessingService;
+    private final IngestionJobService ingestionJobService;
+    private final BatchIngestionService batchIngestionService;
+    private final DocumentStore documentStore;
+    private final FingerprintIndex fingerprintIndex;
+    private final DocumentAccessIndex documentAccess;
+    private final IndexingPipeline indexingPipeline;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
 
-    public FileUploadController(FileProcessingService fileProcessingService) {
-        this.fileProcessingService = fileProcessingService;
+    public FileUploadController(IngestionJobService ingestionJobService, BatchIngestionService batchIngestionService,
+                                DocumentStore documentStore, FingerprintIndex fingerprintIndex,
+                                DocumentAccessIndex documentAccess, IndexingPipeline indexingPipeline,
+                                UserRepository userRepository, ObjectMapper objectMapper) {
+        this.ingestionJobService = ingestionJobService;
+        this.batchIngestionService = batchIngestionService;
+        this.documentStore = documentStore;
+        this.fingerprintIndex = fingerprintIndex;
+        this.documentAccess = documentAccess;
+        this.indexingPipeline = indexingPipeline;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/upload")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<String> uploadFile(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadFile(@RequestParam("file") MultipartFile file, Authentication authentication) {
         try {
-            String message = fileProcessingService.processFile(file);
-            return ResponseEntity.ok(message);
+            IngestionJob job = ingestionJobService.submit(file, authentication.getName());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/files/jobs/" + job.getId()))
+                    .body(JobStatusResponse.from(job));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "5")
+                    .body("Ingestion queue is full, retry later.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error processing file: " + e.getMessage());
         }
     }
+
+    /**
+     * Ingests every {@code files} part (ZIP parts are expanded) and streams one NDJSON
+     * result line per file as soon as that file is stored, deduplicated or rejected.
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> uploadBatch(@RequestParam("files") List<MultipartFile> files, Authentication authentication) {
+        try {
+            batchIngestionService.reserve();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "5")
+                    .body(e.getMessage());
+        }
+        String owner = authentication.getName();
+        StreamingResponseBody body = out -> batchIngestionService.ingest(files, owner, result -> {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+            out.flush();
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/jobs/{id}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<JobStatusResponse> getJob(@PathVariable String id, Authentication authentication) {
+        return ingestionJobService.getJob(id)
+                .filter(job -> job.getOwner().equals(authentication.getName()))
+                .map(job -> ResponseEntity.ok(JobStatusResponse.from(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/dedup/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<DedupStatsResponse> getDedupStats() {
+        return ResponseEntity.ok(new DedupStatsResponse(
+                fingerprintIndex.getHits(), fingerprintIndex.getMisses(), fingerprintIndex.getBytesSkipped()));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> getDocument(@PathVariable long id, Authentication authentication) {
+        StoredDocument document = documentStore.get(id).orElse(null);
+        if (document == null || !canRead(document, authentication)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .contentLength(document.bodyLength())
+                    .body(new InputStreamResource(documentStore.openBody(id)));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error reading document: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the content of a document with a new upload, processed like {@code /upload}.
+     * The new version is stored under a new id, which the job reports, with the same owner
+     * and grants; the old id is deleted once it is stored.
+     */
+    @PutMapping("/{id}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> replaceDocument(@PathVariable long id, @RequestParam("file") MultipartFile file,
+                                             Authentication authentication) {
+        StoredDocument document = documentStore.get(id).orElse(null);
+        if (document == null || !canManage(document, authentication)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            IngestionJob job = ingestionJobService.submit(file, authentication.getName(), id);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/files/jobs/" + job.getId()))
+                    .body(JobStatusResponse.from(job));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "5")
+                    .body("Ingestion queue is full, retry later.");
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error processing file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes a document; only the owner and admins may. Its space is reclaimed by the
+     * store's background compaction.
+     */
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> deleteDocument(@PathVariable long id, Authentication authentication) {
+        StoredDocument document = documentStore.get(id).orElse(null);
+        if (document == null || !canManage(document, authentication)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return indexingPipeline.delete(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error deleting document: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/original")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> getOriginal(@PathVariable long id, Authentication authentication) {
+        StoredDocument document = documentStore.get(id).orElse(null);
+        if (document == null || !canRead(document, authentication)) {
+            return ResponseEntity.notFound().build();
+        }
+        return documentStore.original(id)
+                .<ResponseEntity<?>>map(path -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(document.contentType()))
+                        .body(new FileSystemResource(path)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/grants")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> getGrants(@PathVariable long id, Authentication authentication) {
+        StoredDocument document = documentStore.get(id).orElse(null);
+        if (document == null || !canManage(document, authentication)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(documentAccess.grants(id));
+    }
+
+    /**
+     * Shares a document with one user or with every holder of a role. Only the owner and
+     * admins may change who can read a document.
+     */
+    @PostMapping("/{id}/grants")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> grant(@PathVariable long id, @RequestParam(required = false) String user,
+                                   @RequestParam(required = false) String role, Authentication authentication) {
+        return changeGrant(id, user, role, true, authentication);
+    }
+
+    @DeleteMapping("/{id}/grants")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> revoke(@PathVariable long id, @RequestParam(required = false) String user,
+                                    @RequestParam(required = false) String role, Authentication authentication) {
+        return changeGrant(id, user, role, false, authentication);
+    }
+
+    private ResponseEntity<?> changeGrant(long id, String user, String role, boolean grant,
+                                          Authentication authentication) {
+        StoredDocument document = documentStore.get(id).orElse(null);
+        if (document == null || !canManage(document, authentication)) {
+            return ResponseEntity.notFound().build();
+        }
+        if ((user == null) == (role == null)) {
+            return ResponseEntity.badRequest().body("Specify exactly one of user or role");
+        }
+        try {
+            if (user != null) {
+                if (user.equals(document.owner())) {
+                    return ResponseEntity.badRequest().body("The owner always has access");
+                }
+                if (grant && !userRepository.existsByUsername(user)) {
+                    return ResponseEntity.badRequest().body("Unknown user: " + user);
+                }
+                if (grant) {
+                    documentAccess.grantUser(id, user);
+                } else {
+                    documentAccess.revokeUser(id, user);
+                }
+            } else {
+                String authority = parseRole(role);
+                if (authority == null) {
+                    return ResponseEntity.badRequest().body("Unknown role: " + role);
+                }
+                if (grant) {
+                    documentAccess.grantRole(id, authority);
+                } else {
+                    documentAccess.revokeRole(id, authority);
+                }
+            }
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error updating access: " + e.getMessage());
+        }
+    }
+
+    private static String parseRole(String role) {
+        String name = role.toUpperCase(Locale.ROOT);
+        try {
+            return ERole.valueOf(name.startsWith("ROLE_") ? name : "ROLE_" + name).name();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean canRead(StoredDocument document, Authentication authentication) {
+        return documentAccess.canRead(document.id(), authentication);
+    }
+
+    private boolean canManage(StoredDocument document, Authentication authentication) {
+        return document.owner().equals(authentication.getName())
+                || authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+    }
 }
@@ -0,0 +1,71 @@
+package com.example.neura_search.controller;
+
+import com.example.neura_search.dto.SearchHitResponse;
+import com.example.neura_search.security.DocumentAccessIndex;
+import com.example.neura_search.service.SearchService;
+import com.example.neura_search.service.VectorIndexService;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.function.LongPredicate;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+    private static final int MAX_LIMIT = 100;
+
+    private final SearchService searchService;
+    private final VectorIndexService vectorIndexService;
+    private final DocumentAccessIndex documentAccess;
+
+    public SearchController(SearchService searchService, VectorIndexService vectorIndexService,
+                            DocumentAccessIndex documentAccess) {
+        this.searchService = searchService;
+        this.vectorIndexService = vectorIndexService;
+        this.documentAccess = documentAccess;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> search(@RequestParam("q") String query,
+                                    @RequestParam(value = "limit", defaultValue = "10") int limit,
+                                    Authentication authentication) {
+        try {
+            List<SearchHitResponse> hits = searchService.search(query,
+                    Math.max(1, Math.min(limit, MAX_LIMIT)), visibleTo(authentication));
+            return ResponseEntity.ok(hits);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error running search: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/semantic")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> semanticSearch(@RequestParam("q") String query,
+                                            @RequestParam(value = "k", defaultValue = "10") int k,
+                                            Authentication authentication) {
+        try {
+            List<SearchHitResponse> hits = vectorIndexService.search(query,
+                    Math.max(1, Math.min(k, MAX_LIMIT)), documentAccess.readableBy(authentication));
+            return ResponseEntity.ok(hits);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error running search: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The caller's readable set is built once per query; each candidate is then a bitmap probe.
+     * Passages of deleted documents stay in the indexes and are filtered out here.
+     */
+    private LongPredicate visibleTo(Authentication authentication) {
+        RoaringBitmap readable = documentAccess.readableBy(authentication);
+        return docId -> docId <= Integer.MAX_VALUE && readable.contains((int) docId);
+    }
+}
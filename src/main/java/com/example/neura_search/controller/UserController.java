@@ -1,15 +1,26 @@
 package com.example.neura_search.controller;
 
-import com.example.neura_search.model.User;
+import com.example.neura_search.dto.UserImportResult;
+import com.example.neura_search.dto.UserPage;
+import com.example.neura_search.dto.UserSummary;
+import com.example.neura_search.service.UserImportService;
 import com.example.neura_search.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/users")
@@ -18,10 +29,72 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getUsers(@RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "100") int limit) {
+        try {
+            UserPage page = userService.listUsers(cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Every user as NDJSON, for exports. Pages are fetched one query at a time while the
+     * response is written, so neither the list nor a database connection is held for the
+     * whole transfer.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = out -> {
+            String cursor = null;
+            do {
+                UserPage page = userService.listUsers(cursor, UserService.MAX_PAGE_SIZE);
+                for (UserSummary user : page.getUsers()) {
+                    out.write(objectMapper.writeValueAsBytes(user));
+                    out.write('\n');
+                }
+                out.flush();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Bulk provisioning from a CSV or NDJSON request body, read as a stream. Rows that fail
+     * validation or clash with existing users are skipped and reported; the rest are created.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        try {
+            UserImportResult result = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                    ? userImportService.importNdjson(body)
+                    : userImportService.importCsv(body);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error importing users: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/revoke-tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> revokeTokens(@PathVariable Long id) {
+        userService.revokeTokens(id);
+        return ResponseEntity.ok("All tokens issued to the user have been revoked.");
     }
-}
\ No newline at end of file
+}
@@ -6,14 +6,16 @@ import java.util.List;
 @Data
 public class AuthResponse {
     private String token;
+    private String refreshToken;
     private String type = "Bearer";
     private Long id;
     private String username;
     private String email;
     private List<String> roles;
 
-    public AuthResponse(String token, Long id, String username, String email, List<String> roles) {
+    public AuthResponse(String token, String refreshToken, Long id, String username, String email, List<String> roles) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.id = id;
         this.username = username;
         this.email = email;
@@ -0,0 +1,31 @@
+package com.example.neura_search.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/**
+ * Outcome of one file in a batch upload, streamed back as one NDJSON line.
+ * {@code status} is STORED, DEDUPLICATED, UNSUPPORTED or FAILED.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    private int index;
+    private String fileName;
+    private String status;
+    private String contentType;
+    private long size;
+    private Long documentId;
+    private String error;
+
+    public BatchItemResult(int index, String fileName, String status, String contentType, long size,
+                           Long documentId, String error) {
+        this.index = index;
+        this.fileName = fileName;
+        this.status = status;
+        this.contentType = contentType;
+        this.size = size;
+        this.documentId = documentId;
+        this.error = error;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.neura_search.dto;
+
+import lombok.Data;
+
+@Data
+public class DedupStatsResponse {
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long bytesSkipped;
+
+    public DedupStatsResponse(long hits, long misses, long bytesSkipped) {
+        this.hits = hits;
+        this.misses = misses;
+        this.hitRatio = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        this.bytesSkipped = bytesSkipped;
+    }
+}
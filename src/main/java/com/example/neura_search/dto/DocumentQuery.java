@@ -0,0 +1,27 @@
+package com.example.neura_search.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Filters for {@code GET /api/documents}, bound from query parameters. Repeating a
+ * parameter matches any of its values; different parameters must all match. Dates are
+ * ISO-8601 instants or plain dates (UTC, inclusive); sizes are bytes of the uploaded file.
+ * {@code facets} is a comma-separated list of type, author, language.
+ */
+@Data
+public class DocumentQuery {
+    private List<String> type;
+    private List<String> author;
+    private List<String> language;
+    private String createdFrom;
+    private String createdTo;
+    private Long minSize;
+    private Long maxSize;
+    private Long minPages;
+    private Long maxPages;
+    private Long after;
+    private int limit = 20;
+    private String facets = "type,author";
+}
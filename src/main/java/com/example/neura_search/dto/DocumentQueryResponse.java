@@ -0,0 +1,27 @@
+package com.example.neura_search.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of matching documents in id order. {@code total} counts every match and
+ * {@code facets} maps each requested column to its most frequent values among them.
+ * {@code next} is passed back as {@code after} for the following page and is null on the last.
+ */
+@Data
+public class DocumentQueryResponse {
+    private int total;
+    private List<DocumentSummary> documents;
+    private Map<String, Map<String, Integer>> facets;
+    private Long next;
+
+    public DocumentQueryResponse(int total, List<DocumentSummary> documents,
+                                 Map<String, Map<String, Integer>> facets, Long next) {
+        this.total = total;
+        this.documents = documents;
+        this.facets = facets;
+        this.next = next;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.neura_search.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/**
+ * A stored document and the properties its parser reported; absent properties are omitted.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DocumentSummary {
+    private long id;
+    private String owner;
+    private String contentType;
+    private String title;
+    private String author;
+    private String created;
+    private Integer pages;
+    private String language;
+    private Long size;
+
+    public DocumentSummary(long id, String owner, String contentType) {
+        this.id = id;
+        this.owner = owner;
+        this.contentType = contentType;
+    }
+}
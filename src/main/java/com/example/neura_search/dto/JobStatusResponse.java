@@ -0,0 +1,41 @@
+package com.example.neura_search.dto;
+
+import com.example.neura_search.model.IngestionJob;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class JobStatusResponse {
+    private String jobId;
+    private String fileName;
+    private String state;
+    private int progress;
+    private long bytesProcessed;
+    private long size;
+    private Long documentId;
+    private Long replaces;
+    private boolean deduplicated;
+    private String result;
+    private String error;
+    private Instant createdAt;
+    private Instant finishedAt;
+
+    public static JobStatusResponse from(IngestionJob job) {
+        JobStatusResponse response = new JobStatusResponse();
+        response.setJobId(job.getId());
+        response.setFileName(job.getFileName());
+        response.setState(job.getState().name());
+        response.setProgress(job.getProgressPercent());
+        response.setBytesProcessed(job.getBytesProcessed());
+        response.setSize(job.getSize());
+        response.setDocumentId(job.getDocumentId());
+        response.setReplaces(job.getReplaces());
+        response.setDeduplicated(job.isDeduplicated());
+        response.setResult(job.getResult());
+        response.setError(job.getError());
+        response.setCreatedAt(job.getCreatedAt());
+        response.setFinishedAt(job.getFinishedAt());
+        return response;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.neura_search.dto;
+
+import lombok.Data;
+
+@Data
+public class SearchHitResponse {
+    private long documentId;
+    private String chunkId;
+    private String contentType;
+    private float score;
+    private String snippet;
+
+    public SearchHitResponse(long documentId, String chunkId, String contentType, float score, String snippet) {
+        this.documentId = documentId;
+        this.chunkId = chunkId;
+        this.contentType = contentType;
+        this.score = score;
+        this.snippet = snippet;
+    }
+}
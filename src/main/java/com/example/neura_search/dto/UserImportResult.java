@@ -0,0 +1,30 @@
+package com.example.neura_search.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk user import. Only the first rejections are listed in full;
+ * {@code rejected} always counts all of them.
+ */
+@Data
+public class UserImportResult {
+    private long created;
+    private long rejected;
+    private List<Rejection> rejections = new ArrayList<>();
+
+    @Data
+    public static class Rejection {
+        private long row;
+        private String username;
+        private String reason;
+
+        public Rejection(long row, String username, String reason) {
+            this.row = row;
+            this.username = username;
+            this.reason = reason;
+        }
+    }
+}
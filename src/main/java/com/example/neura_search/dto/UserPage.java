@@ -0,0 +1,20 @@
+package com.example.neura_search.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of users. {@code nextCursor} is passed back as {@code cursor} to get the
+ * following page and is null on the last one.
+ */
+@Data
+public class UserPage {
+    private List<UserSummary> users;
+    private String nextCursor;
+
+    public UserPage(List<UserSummary> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.neura_search.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listing view of a user: the columns an admin needs, never the password hash.
+ */
+@Data
+public class UserSummary {
+    private Long id;
+    private String username;
+    private String email;
+    private List<String> roles = new ArrayList<>();
+
+    public UserSummary(Long id, String username, String email) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+    }
+}
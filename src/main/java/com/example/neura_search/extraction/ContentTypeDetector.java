@@ -0,0 +1,38 @@
+package com.example.neura_search.extraction;
+
+import org.apache.tika.config.TikaConfig;
+import org.apache.tika.detect.Detector;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Identifies a file's format from its content. Magic bytes and container structure
+ * (zip entries, OLE2 streams) decide; the file name and the client-declared type only
+ * break ties for formats without a signature, such as CSV versus plain text.
+ */
+@Component
+public class ContentTypeDetector {
+    private final Detector detector = TikaConfig.getDefaultConfig().getDetector();
+
+    public String detect(Path file, String fileName, String declaredType) throws IOException {
+        Metadata metadata = new Metadata();
+        if (fileName != null) {
+            metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, fileName);
+        }
+        if (declaredType != null) {
+            metadata.set(Metadata.CONTENT_TYPE, declaredType);
+        }
+        try (TikaInputStream in = TikaInputStream.get(file)) {
+            return detector.detect(in, metadata).getBaseType().toString();
+        }
+    }
+
+    public String detect(Path file) throws IOException {
+        return detect(file, file.getFileName().toString(), null);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.neura_search.extraction;
+
+import org.apache.tika.detect.AutoDetectReader;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Streams delimited text into the same row layout as {@link ExcelStreamingExtractor}:
+ * tab-terminated cells and newline-terminated rows. Quoted fields follow RFC 4180, and
+ * tabs or line breaks inside a field become spaces so they cannot split a row. The charset
+ * is detected, and the delimiter is whichever of comma, semicolon or tab dominates the header.
+ */
+@Component
+public class CsvExtractor implements DocumentExtractor {
+    private static final Set<String> MEDIA_TYPES = Set.of("text/csv", "text/tab-separated-values");
+    private static final int SNIFF_CHARS = 64 * 1024;
+
+    @Override
+    public Set<String> mediaTypes() {
+        return MEDIA_TYPES;
+    }
+
+    @Override
+    public boolean tabular() {
+        return true;
+    }
+
+    @Override
+    public void extract(Path file, Writer sink, Metadata metadata) throws IOException {
+        try (TikaInputStream input = TikaInputStream.get(file);
+             AutoDetectReader reader = new AutoDetectReader(input, metadata)) {
+            metadata.set(Metadata.CONTENT_ENCODING, reader.getCharset().name());
+            convert(reader, sink, sniffDelimiter(reader));
+        } catch (TikaException e) {
+            throw new IOException("Could not detect the charset of " + file.getFileName(), e);
+        }
+    }
+
+    static void convert(BufferedReader reader, Writer sink, char delimiter) throws IOException {
+        boolean quoted = false;
+        boolean rowStarted = false;
+        int c;
+        while ((c = reader.read()) >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        sink.write('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    sink.write(c == '\t' || c == '\n' || c == '\r' ? ' ' : c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                rowStarted = true;
+            } else if (c == delimiter) {
+                sink.write('\t');
+                rowStarted = true;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                if (rowStarted) {
+                    sink.write("\t\n");
+                    rowStarted = false;
+                }
+            } else {
+                sink.write(c == '\t' ? ' ' : c);
+                rowStarted = true;
+            }
+        }
+        if (rowStarted) {
+            sink.write("\t\n");
+        }
+    }
+
+    private static char sniffDelimiter(BufferedReader reader) throws IOException {
+        reader.mark(SNIFF_CHARS);
+        int commas = 0;
+        int semicolons = 0;
+        int tabs = 0;
+        boolean quoted = false;
+        for (int i = 0, c; i < SNIFF_CHARS && (c = reader.read()) >= 0; i++) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted) {
+                if (c == '\n' || c == '\r') {
+                    break;
+                }
+                switch (c) {
+                    case ',' -> commas++;
+                    case ';' -> semicolons++;
+                    case '\t' -> tabs++;
+                    default -> {
+                    }
+                }
+            }
+        }
+        reader.reset();
+        if (tabs > commas && tabs >= semicolons) {
+            return '\t';
+        }
+        return semicolons > commas ? ';' : ',';
+    }
+}
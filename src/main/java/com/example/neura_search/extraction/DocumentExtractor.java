@@ -0,0 +1,33 @@
+package com.example.neura_search.extraction;
+
+import org.apache.tika.metadata.Metadata;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Text extractor for one family of formats. Implementations are Spring beans and are
+ * picked up by {@link ExtractorRegistry}; adding a format means adding a bean.
+ */
+public interface DocumentExtractor {
+
+    /**
+     * Base media types (no parameters, lower case) this extractor reads.
+     */
+    Set<String> mediaTypes();
+
+    /**
+     * Whether the output is rows of tab-terminated cells, which the chunker splits by row.
+     */
+    default boolean tabular() {
+        return false;
+    }
+
+    /**
+     * Writes the text of {@code file} to {@code sink}. Document properties found along the
+     * way (title, author, page count, ...) are added to {@code metadata}.
+     */
+    void extract(Path file, Writer sink, Metadata metadata) throws IOException;
+}
@@ -0,0 +1,62 @@
+package com.example.neura_search.extraction;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.Office;
+import org.apache.tika.metadata.PagedText;
+import org.apache.tika.metadata.TikaCoreProperties;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The document properties kept in the store header, taken from what the parser reported.
+ * Values are strings: {@link #CREATED} is an ISO-8601 instant, {@link #PAGES} and
+ * {@link #SIZE} (bytes of the uploaded file) are decimal numbers.
+ */
+public final class DocumentMetadata {
+    public static final String TITLE = "title";
+    public static final String AUTHOR = "author";
+    public static final String CREATED = "created";
+    public static final String PAGES = "pages";
+    public static final String LANGUAGE = "language";
+    public static final String SIZE = "size";
+
+    // Headers are read on every query result, so free-text values are capped
+    private static final int MAX_VALUE_LENGTH = 512;
+
+    private DocumentMetadata() {
+    }
+
+    public static Map<String, String> attributes(Metadata metadata, long sourceBytes) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        put(attributes, TITLE, metadata.get(TikaCoreProperties.TITLE));
+        put(attributes, AUTHOR, metadata.get(TikaCoreProperties.CREATOR));
+        Date created = metadata.getDate(TikaCoreProperties.CREATED);
+        if (created != null) {
+            attributes.put(CREATED, created.toInstant().toString());
+        }
+        Integer pages = metadata.getInt(PagedText.N_PAGES);
+        if (pages == null) {
+            pages = metadata.getInt(Office.PAGE_COUNT);
+        }
+        if (pages != null) {
+            attributes.put(PAGES, Integer.toString(pages));
+        }
+        String language = metadata.get(TikaCoreProperties.LANGUAGE);
+        if (language != null) {
+            put(attributes, LANGUAGE, language.toLowerCase(Locale.ROOT));
+        }
+        attributes.put(SIZE, Long.toString(sourceBytes));
+        return attributes;
+    }
+
+    private static void put(Map<String, String> attributes, String key, String value) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String trimmed = value.strip();
+        attributes.put(key, trimmed.length() > MAX_VALUE_LENGTH ? trimmed.substring(0, MAX_VALUE_LENGTH) : trimmed);
+    }
+}
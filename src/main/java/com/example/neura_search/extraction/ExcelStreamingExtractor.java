@@ -0,0 +1,232 @@
+package com.example.neura_search.extraction;
+
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.tika.metadata.Metadata;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Event-based Excel reader. Rows are written to the sink as the sheet XML (XLSX)
+ * or BIFF records (XLS) are read, so no workbook object model is ever built.
+ * Cells are tab-terminated, rows newline-terminated and sheets separated by a form feed.
+ */
+@Component
+public class ExcelStreamingExtractor implements DocumentExtractor {
+    private static final Set<String> MEDIA_TYPES = Set.of(
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+            "application/vnd.ms-excel");
+
+    @Override
+    public Set<String> mediaTypes() {
+        return MEDIA_TYPES;
+    }
+
+    @Override
+    public boolean tabular() {
+        return true;
+    }
+
+    /**
+     * Reads the workbook straight from {@code file}: XLSX through the zip's central directory
+     * and XLS through POIFS's file-backed block reader, so it is never buffered on the heap.
+     */
+    @Override
+    public void extract(Path file, Writer sink, Metadata metadata) throws IOException {
+        FileMagic magic = FileMagic.valueOf(file.toFile());
+        try {
+            switch (magic) {
+                case OOXML -> extractXlsx(file, sink);
+                case OLE2 -> extractXls(file, sink);
+                default -> throw new IOException("Not an Excel workbook (detected " + magic + ")");
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void extractXlsx(Path file, Writer sink) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("Failed to open XLSX workbook", e);
+        }
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+            StylesTable styles = reader.getStylesTable();
+            DataFormatter formatter = new DataFormatter();
+            XMLReader xmlReader = XMLHelper.newXMLReader();
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            boolean first = true;
+            while (sheets.hasNext()) {
+                if (!first) {
+                    sink.write('\f');
+                }
+                first = false;
+                try (InputStream sheet = sheets.next()) {
+                    xmlReader.setContentHandler(new XSSFSheetXMLHandler(
+                            styles, null, strings, new RowWriter(sink), formatter, false));
+                    xmlReader.parse(new InputSource(sheet));
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Failed to read XLSX workbook", e);
+        } finally {
+            // Read-only packages are released with revert(); close() would try to save
+            pkg.revert();
+        }
+    }
+
+    private void extractXls(Path file, Writer sink) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(file.toFile(), true)) {
+            XlsRecordWriter recordWriter = new XlsRecordWriter(sink);
+            FormatTrackingHSSFListener formats =
+                    new FormatTrackingHSSFListener(new MissingRecordAwareHSSFListener(recordWriter));
+            recordWriter.formats = formats;
+
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(formats);
+            new HSSFEventFactory().processWorkbookEvents(request, fs);
+        }
+    }
+
+    private static void writeCell(Writer sink, String value) {
+        try {
+            sink.write(value);
+            sink.write('\t');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void endRow(Writer sink) {
+        try {
+            sink.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class RowWriter implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final Writer sink;
+
+        RowWriter(Writer sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            ExcelStreamingExtractor.endRow(sink);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            writeCell(sink, formattedValue);
+        }
+    }
+
+    private static class XlsRecordWriter implements HSSFListener {
+        private final Writer sink;
+        private FormatTrackingHSSFListener formats;
+        private SSTRecord sharedStrings;
+        private boolean expectFormulaString;
+        private int worksheets;
+
+        XlsRecordWriter(Writer sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void processRecord(Record record) {
+            switch (record.getSid()) {
+                case BOFRecord.sid -> {
+                    if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET && worksheets++ > 0) {
+                        try {
+                            sink.write('\f');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                }
+                case SSTRecord.sid -> sharedStrings = (SSTRecord) record;
+                case LabelSSTRecord.sid -> {
+                    LabelSSTRecord label = (LabelSSTRecord) record;
+                    if (sharedStrings != null) {
+                        writeCell(sink, sharedStrings.getString(label.getSSTIndex()).getString());
+                    }
+                }
+                case LabelRecord.sid -> writeCell(sink, ((LabelRecord) record).getValue());
+                case NumberRecord.sid -> writeCell(sink, formats.formatNumberDateCell((NumberRecord) record));
+                case BoolErrRecord.sid -> {
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    if (boolErr.isBoolean()) {
+                        writeCell(sink, Boolean.toString(boolErr.getBooleanValue()));
+                    }
+                }
+                case FormulaRecord.sid -> {
+                    FormulaRecord formula = (FormulaRecord) record;
+                    if (formula.hasCachedResultString()) {
+                        // The cached text follows in the next StringRecord
+                        expectFormulaString = true;
+                    } else {
+                        writeCell(sink, formats.formatNumberDateCell(formula));
+                    }
+                }
+                case StringRecord.sid -> {
+                    if (expectFormulaString) {
+                        writeCell(sink, ((StringRecord) record).getString());
+                        expectFormulaString = false;
+                    }
+                }
+                default -> {
+                    if (record instanceof LastCellOfRowDummyRecord) {
+                        endRow(sink);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.neura_search.extraction;
+
+import org.apache.tika.metadata.Metadata;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Entry point of a forked extraction JVM, started by {@link ForkedExtractionPool}. It reads
+ * requests from stdin and answers on stdout, one document at a time, until stdin closes.
+ * Everything else the parsers print goes to stderr, so it cannot corrupt the protocol.
+ *
+ * <p>Request: content type, source path, target path (UTF), character limit (long).
+ * Reply: {@code true}, characters written (long), metadata as a count followed by
+ * name/value pairs; or {@code false} and an error message.
+ */
+public final class ExtractionWorker {
+    // DataOutput.writeUTF is limited to 64KB of modified UTF-8
+    private static final int MAX_STRING = 16 * 1024;
+
+    private ExtractionWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        DataOutputStream replies = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.err), true));
+        DataInputStream requests = new DataInputStream(new BufferedInputStream(System.in));
+
+        PdfExtractor pdfExtractor = new PdfExtractor(
+                Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        ExtractorRegistry extractors = new ExtractorRegistry(List.of(
+                pdfExtractor, new ExcelStreamingExtractor(), new CsvExtractor(), new TikaDocumentExtractor()));
+
+        while (true) {
+            String contentType;
+            try {
+                contentType = requests.readUTF();
+            } catch (EOFException e) {
+                pdfExtractor.close();
+                return;
+            }
+            Path source = Path.of(requests.readUTF());
+            Path target = Path.of(requests.readUTF());
+            long maxCharacters = requests.readLong();
+
+            Metadata metadata = new Metadata();
+            metadata.set(Metadata.CONTENT_TYPE, contentType);
+            try {
+                DocumentExtractor extractor = extractors.find(contentType)
+                        .orElseThrow(() -> new IllegalArgumentException("Unsupported file format: " + contentType));
+                LimitedWriter sink = new LimitedWriter(new BufferedWriter(
+                        new OutputStreamWriter(Files.newOutputStream(target), StandardCharsets.UTF_8), 64 * 1024), maxCharacters);
+                try (sink) {
+                    extractor.extract(source, sink, metadata);
+                }
+                replies.writeBoolean(true);
+                replies.writeLong(sink.count);
+                writeMetadata(replies, metadata);
+            } catch (Exception | StackOverflowError e) {
+                replies.writeBoolean(false);
+                replies.writeUTF(truncate(e.getMessage() != null ? e.getMessage() : e.toString()));
+            }
+            replies.flush();
+        }
+    }
+
+    private static void writeMetadata(DataOutputStream replies, Metadata metadata) throws IOException {
+        int values = 0;
+        for (String name : metadata.names()) {
+            values += metadata.getValues(name).length;
+        }
+        replies.writeInt(values);
+        for (String name : metadata.names()) {
+            for (String value : metadata.getValues(name)) {
+                replies.writeUTF(truncate(name));
+                replies.writeUTF(truncate(value));
+            }
+        }
+    }
+
+    private static String truncate(String value) {
+        return value.length() > MAX_STRING ? value.substring(0, MAX_STRING) : value;
+    }
+
+    /**
+     * Fails the document once it has produced more than the allowed amount of text, which
+     * is what a decompression bomb looks like from the outside.
+     */
+    private static final class LimitedWriter extends FilterWriter {
+        private final long limit;
+        private long count;
+
+        LimitedWriter(Writer out, long limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            reserve(1);
+            super.write(c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            reserve(len);
+            super.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            reserve(len);
+            super.write(str, off, len);
+        }
+
+        private void reserve(int len) throws IOException {
+            count += len;
+            if (count > limit) {
+                throw new IOException("Extracted text exceeds " + limit + " characters");
+            }
+        }
+    }
+}
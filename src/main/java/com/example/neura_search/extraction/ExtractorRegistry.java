@@ -0,0 +1,50 @@
+package com.example.neura_search.extraction;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maps media types to the extractor that handles them.
+ */
+@Component
+public class ExtractorRegistry {
+    private final Map<String, DocumentExtractor> byMediaType = new HashMap<>();
+
+    public ExtractorRegistry(List<DocumentExtractor> extractors) {
+        for (DocumentExtractor extractor : extractors) {
+            for (String mediaType : extractor.mediaTypes()) {
+                DocumentExtractor previous = byMediaType.putIfAbsent(mediaType, extractor);
+                if (previous != null) {
+                    throw new IllegalStateException("Both " + previous.getClass().getSimpleName() + " and "
+                            + extractor.getClass().getSimpleName() + " claim " + mediaType);
+                }
+            }
+        }
+    }
+
+    public Optional<DocumentExtractor> find(String contentType) {
+        return Optional.ofNullable(byMediaType.get(baseType(contentType)));
+    }
+
+    public boolean supports(String contentType) {
+        return find(contentType).isPresent();
+    }
+
+    public boolean isTabular(String contentType) {
+        return find(contentType).map(DocumentExtractor::tabular).orElse(false);
+    }
+
+    private static String baseType(String contentType) {
+        if (contentType == null) {
+            return "";
+        }
+        int parameters = contentType.indexOf(';');
+        String base = parameters >= 0 ? contentType.substring(0, parameters) : contentType;
+        return base.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.neura_search.extraction;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.tika.metadata.Metadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.jar.JarFile;
+
+/**
+ * Runs extraction in child JVMs ({@link ExtractionWorker}) so that a malformed or hostile
+ * document can only take down its own worker. Each document gets a wall-clock limit, after
+ * which the worker is killed; workers run with a capped heap and exit on OutOfMemoryError;
+ * text beyond the character limit fails the document. Workers are reused, replaced after
+ * any failure that leaves them in doubt, and recycled after a fixed number of documents.
+ * Each worker's thread pools are sized to its share of the cores, so N workers together
+ * do not start N times as many threads as there are cores.
+ */
+@Component
+public class ForkedExtractionPool {
+    private static final Logger log = LoggerFactory.getLogger(ForkedExtractionPool.class);
+    private static final String PROPERTIES_LAUNCHER = "org.springframework.boot.loader.launch.PropertiesLauncher";
+
+    private final boolean enabled;
+    private final Duration timeout;
+    private final long maxCharacters;
+    private final int maxDocumentsPerWorker;
+    private final List<String> command;
+    private final Semaphore permits;
+    private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "extract-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ForkedExtractionPool(@Value("${app.extract.sandbox.enabled:true}") boolean enabled,
+                                @Value("${app.extract.sandbox.workers:0}") int workers,
+                                @Value("${app.extract.sandbox.timeout:PT2M}") Duration timeout,
+                                @Value("${app.extract.sandbox.max-heap:512m}") String maxHeap,
+                                @Value("${app.extract.sandbox.max-characters:50000000}") long maxCharacters,
+                                @Value("${app.extract.sandbox.max-documents-per-worker:100}") int maxDocumentsPerWorker,
+                                @Value("${app.extract.pdf.parallelism:0}") int pdfParallelism,
+                                @Value("${app.extract.pdf.parallel-min-pages:64}") int pdfParallelMinPages,
+                                @Value("${app.extract.pdf.pages-per-range:16}") int pdfPagesPerRange) {
+        this.enabled = enabled;
+        this.timeout = timeout;
+        this.maxCharacters = maxCharacters;
+        this.maxDocumentsPerWorker = maxDocumentsPerWorker;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int workerCount = workers > 0 ? workers : cores;
+        this.permits = new Semaphore(workerCount, true);
+        int coresPerWorker = Math.max(1, cores / workerCount);
+        this.command = command(maxHeap, coresPerWorker, pdfParallelism > 0 ? pdfParallelism : coresPerWorker,
+                pdfParallelMinPages, pdfPagesPerRange);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Extracts {@code source} into {@code target} as UTF-8 text in a worker process, adds the
+     * document properties it reports to {@code metadata} and returns the number of characters.
+     */
+    public long extract(Path source, String contentType, Path target, Metadata metadata) throws IOException, InterruptedException {
+        permits.acquire();
+        Worker worker = null;
+        boolean reusable = false;
+        try {
+            worker = idle.poll();
+            while (worker != null && !worker.process.isAlive()) {
+                worker.close();
+                worker = idle.poll();
+            }
+            if (worker == null) {
+                worker = new Worker(start());
+            }
+            long characters = worker.extract(source, contentType, target, metadata);
+            reusable = true;
+            return characters;
+        } catch (ExtractionFailedException e) {
+            // The worker answered, so it is still in a known state
+            reusable = true;
+            throw new IOException(e.getMessage());
+        } finally {
+            if (worker != null) {
+                // The watchdog may have fired after the reply arrived but before it was cancelled
+                if (reusable && !worker.killed && worker.process.isAlive() && ++worker.documents < maxDocumentsPerWorker) {
+                    idle.add(worker);
+                } else {
+                    worker.close();
+                }
+            }
+            permits.release();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        watchdog.shutdownNow();
+        List<Worker> workers = new ArrayList<>();
+        idle.drainTo(workers);
+        workers.forEach(Worker::close);
+    }
+
+    private Process start() throws IOException {
+        return new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private static List<String> command(String maxHeap, int coresPerWorker, int pdfParallelism, int pdfParallelMinPages,
+                                        int pdfPagesPerRange) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx" + maxHeap);
+        command.add("-Djava.util.concurrent.ForkJoinPool.common.parallelism=" + coresPerWorker);
+        command.add("-XX:+ExitOnOutOfMemoryError");
+        command.add("-XX:+UseSerialGC");
+        command.add("-Djava.awt.headless=true");
+        command.add("-Dlogback.configurationFile=logback-worker.xml");
+        String classPath = System.getProperty("java.class.path");
+        command.add("-cp");
+        command.add(classPath);
+        if (isExecutableJar(classPath)) {
+            // Running from the Boot jar: the worker's classes are nested inside it
+            command.add(command.size() - 2, "-Dloader.main=" + ExtractionWorker.class.getName());
+            command.add(PROPERTIES_LAUNCHER);
+        } else {
+            command.add(ExtractionWorker.class.getName());
+        }
+        command.add(String.valueOf(pdfParallelism));
+        command.add(String.valueOf(pdfParallelMinPages));
+        command.add(String.valueOf(pdfPagesPerRange));
+        return command;
+    }
+
+    private static boolean isExecutableJar(String classPath) {
+        Path path = Path.of(classPath);
+        if (!classPath.endsWith(".jar") || !Files.isRegularFile(path)) {
+            return false;
+        }
+        try (JarFile jar = new JarFile(path.toFile())) {
+            return jar.getManifest() != null && jar.getManifest().getMainAttributes().getValue("Start-Class") != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static final class ExtractionFailedException extends Exception {
+        ExtractionFailedException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private final class Worker {
+        private final Process process;
+        private final DataOutputStream requests;
+        private final DataInputStream replies;
+        private int documents;
+        private volatile boolean killed;
+
+        Worker(Process process) {
+            this.process = process;
+            this.requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            this.replies = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+
+        long extract(Path source, String contentType, Path target, Metadata metadata)
+                throws IOException, ExtractionFailedException {
+            AtomicBoolean timedOut = new AtomicBoolean();
+            ScheduledFuture<?> kill = watchdog.schedule(() -> {
+                timedOut.set(true);
+                killed = true;
+                process.destroyForcibly();
+            }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+            try {
+                requests.writeUTF(contentType);
+                requests.writeUTF(source.toAbsolutePath().toString());
+                requests.writeUTF(target.toAbsolutePath().toString());
+                requests.writeLong(maxCharacters);
+                requests.flush();
+
+                if (!replies.readBoolean()) {
+                    throw new ExtractionFailedException(replies.readUTF());
+                }
+                long characters = replies.readLong();
+                for (int i = replies.readInt(); i > 0; i--) {
+                    metadata.add(replies.readUTF(), replies.readUTF());
+                }
+                return characters;
+            } catch (IOException e) {
+                if (timedOut.get()) {
+                    throw new IOException("Extraction timed out after " + timeout.toSeconds() + "s");
+                }
+                throw new IOException("Extraction worker died: " + exitStatus(), e);
+            } finally {
+                kill.cancel(false);
+            }
+        }
+
+        private String exitStatus() {
+            try {
+                if (process.waitFor(1, TimeUnit.SECONDS)) {
+                    // ExitOnOutOfMemoryError exits with 3
+                    return process.exitValue() == 3 ? "out of memory" : "exit code " + process.exitValue();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "no response";
+        }
+
+        void close() {
+            try {
+                requests.close();
+                if (!process.waitFor(2, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (IOException e) {
+                process.destroyForcibly();
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+            log.debug("Extraction worker {} retired after {} documents", process.pid(), documents);
+        }
+    }
+}
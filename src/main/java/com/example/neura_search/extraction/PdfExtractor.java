@@ -0,0 +1,125 @@
+package com.example.neura_search.extraction;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.PagedText;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * PDF text through PDFBox. Documents of {@code parallel-min-pages} or more are cut into
+ * page ranges that are extracted concurrently on a fork-join pool, each from its own
+ * {@link PDDocument} since a document is not thread-safe, and written back in page order.
+ * Only a window of ranges is in flight at once, which bounds the text held in memory.
+ */
+@Component
+public class PdfExtractor implements DocumentExtractor {
+    private final ForkJoinPool pool;
+    private final int parallelMinPages;
+    private final int pagesPerRange;
+    private final int window;
+
+    public PdfExtractor(@Value("${app.extract.pdf.parallelism:0}") int parallelism,
+                        @Value("${app.extract.pdf.parallel-min-pages:64}") int parallelMinPages,
+                        @Value("${app.extract.pdf.pages-per-range:16}") int pagesPerRange) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads);
+        this.parallelMinPages = parallelMinPages;
+        this.pagesPerRange = pagesPerRange;
+        this.window = threads * 2;
+    }
+
+    @Override
+    public Set<String> mediaTypes() {
+        return Set.of("application/pdf");
+    }
+
+    @Override
+    public void extract(Path file, Writer sink, Metadata metadata) throws IOException {
+        int pages;
+        try (PDDocument document = load(file)) {
+            pages = document.getNumberOfPages();
+            describe(document, pages, metadata);
+            if (pages < parallelMinPages || pool.getParallelism() == 1) {
+                stripper().writeText(document, sink);
+                return;
+            }
+        }
+
+        Deque<ForkJoinTask<String>> inFlight = new ArrayDeque<>();
+        try {
+            for (int first = 1; first <= pages; first += pagesPerRange) {
+                if (inFlight.size() == window) {
+                    sink.write(inFlight.removeFirst().join());
+                }
+                int start = first;
+                int end = Math.min(pages, first + pagesPerRange - 1);
+                inFlight.addLast(pool.submit(() -> extractRange(file, start, end)));
+            }
+            while (!inFlight.isEmpty()) {
+                sink.write(inFlight.removeFirst().join());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            inFlight.forEach(task -> task.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private static String extractRange(Path file, int start, int end) {
+        try (PDDocument document = load(file)) {
+            PDFTextStripper stripper = stripper();
+            stripper.setStartPage(start);
+            stripper.setEndPage(end);
+            return stripper.getText(document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static PDFTextStripper stripper() throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        // Same as Tika's default; the overlap check is quadratic in the glyphs on a page
+        stripper.setSuppressDuplicateOverlappingText(false);
+        return stripper;
+    }
+
+    private static PDDocument load(Path file) throws IOException {
+        // Objects are parsed lazily, so opening the file again per range is cheap
+        return PDDocument.load(file.toFile(), MemoryUsageSetting.setupMainMemoryOnly());
+    }
+
+    private static void describe(PDDocument document, int pages, Metadata metadata) {
+        metadata.set(PagedText.N_PAGES, pages);
+        PDDocumentInformation info = document.getDocumentInformation();
+        if (info.getTitle() != null) {
+            metadata.set(TikaCoreProperties.TITLE, info.getTitle());
+        }
+        if (info.getAuthor() != null) {
+            metadata.set(TikaCoreProperties.CREATOR, info.getAuthor());
+        }
+        if (info.getCreationDate() != null) {
+            metadata.set(TikaCoreProperties.CREATED, info.getCreationDate());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.neura_search.extraction;
+
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.BodyContentHandler;
+import org.springframework.stereotype.Component;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Word documents, HTML and plain text through Tika's own parsers, which already
+ * stream body text and handle charset detection for text formats.
+ */
+@Component
+public class TikaDocumentExtractor implements DocumentExtractor {
+    private static final Set<String> MEDIA_TYPES = Set.of(
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            "application/msword",
+            "text/html",
+            "application/xhtml+xml",
+            "text/plain");
+
+    private final Parser parser = new AutoDetectParser();
+
+    @Override
+    public Set<String> mediaTypes() {
+        return MEDIA_TYPES;
+    }
+
+    @Override
+    public void extract(Path file, Writer sink, Metadata metadata) throws IOException {
+        try (TikaInputStream input = TikaInputStream.get(file, metadata)) {
+            parser.parse(input, new BodyContentHandler(sink), metadata, new ParseContext());
+        } catch (TikaException | SAXException e) {
+            throw new IOException("Failed to parse " + file.getFileName(), e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.neura_search.index;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits text into lower-cased alphanumeric terms and drops common English stop words.
+ * Works on a {@link Reader} so documents are tokenized without being materialized.
+ */
+public class Analyzer {
+    public static final int MAX_TOKEN_LENGTH = 64;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "no", "not", "of", "on", "or", "such", "that", "the", "their", "then", "there", "these",
+            "they", "this", "to", "was", "will", "with");
+
+    @FunctionalInterface
+    public interface TokenConsumer {
+        /**
+         * @param term        normalized term
+         * @param startOffset char offset of the first character of the token
+         * @param endOffset   char offset one past the last character of the token
+         */
+        void accept(String term, long startOffset, long endOffset);
+    }
+
+    public void analyze(Reader reader, TokenConsumer consumer) throws IOException {
+        char[] buffer = new char[8192];
+        char[] token = new char[MAX_TOKEN_LENGTH];
+        int length = 0;
+        long offset = 0;
+        long tokenStart = 0;
+        int n;
+        while ((n = reader.read(buffer)) != -1) {
+            for (int i = 0; i < n; i++, offset++) {
+                char c = buffer[i];
+                if (Character.isLetterOrDigit(c)) {
+                    if (length == 0) {
+                        tokenStart = offset;
+                    }
+                    if (length < MAX_TOKEN_LENGTH) {
+                        token[length] = Character.toLowerCase(c);
+                    }
+                    length++;
+                } else if (length > 0) {
+                    emit(token, length, tokenStart, offset, consumer);
+                    length = 0;
+                }
+            }
+        }
+        if (length > 0) {
+            emit(token, length, tokenStart, offset, consumer);
+        }
+    }
+
+    public List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try {
+            analyze(new StringReader(text), (term, start, end) -> terms.add(term));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return terms;
+    }
+
+    private static void emit(char[] token, int length, long start, long end, TokenConsumer consumer) {
+        // Overlong runs (hashes, base64 blobs) are not useful search terms
+        if (length > MAX_TOKEN_LENGTH) {
+            return;
+        }
+        String term = new String(token, 0, length);
+        if (!STOP_WORDS.contains(term)) {
+            consumer.accept(term, start, end);
+        }
+    }
+}
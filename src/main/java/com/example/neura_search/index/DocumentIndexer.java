@@ -0,0 +1,38 @@
+package com.example.neura_search.index;
+
+import com.example.neura_search.chunk.TextChunk;
+import com.example.neura_search.store.StoredDocument;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Downstream consumer of the chunking stage. Each document durably appended to the
+ * store is chunked once and delivered to every indexer in batches, in chunk order.
+ */
+public interface DocumentIndexer {
+
+    /**
+     * Whether this indexer is missing {@code document}; used to catch up after a restart.
+     */
+    default boolean needs(StoredDocument document) {
+        return true;
+    }
+
+    /**
+     * Called once per document before any of its chunks, including documents whose
+     * text yields no chunks at all.
+     */
+    default void stored(StoredDocument document) throws IOException {
+    }
+
+    void index(StoredDocument document, List<TextChunk> chunks) throws IOException;
+
+    /**
+     * Called after document {@code docId} was deleted from the store. Indexers that cannot
+     * drop entries cheaply may keep them, as long as their results are checked against
+     * the store or the access index.
+     */
+    default void removed(long docId) throws IOException {
+    }
+}
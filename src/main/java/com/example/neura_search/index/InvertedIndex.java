@@ -0,0 +1,409 @@
+package com.example.neura_search.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory inverted index scored with BM25. Entries are identified by a caller-chosen
+ * long id (a passage number in {@code SearchService}). Postings are kept per term as
+ * delta-encoded document ordinals and term frequencies written as varints
+ * into a growable byte array; document lengths and ids live in primitive arrays.
+ * <p>
+ * Removed entries stop counting toward the document count and average length at once and
+ * are skipped by searches. Their postings, and with them the document frequencies and their
+ * ordinals, are reclaimed by {@link #purge}, which the owner runs off the query path, so a
+ * burst of removals costs one pass over the postings.
+ */
+public class InvertedIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private byte[][] postings = new byte[1024][];
+    private int[] postingsSize = new int[1024];
+    private int[] lastOrdinal = new int[1024];
+    private int[] docFreq = new int[1024];
+
+    private long[] docIds = new long[1024];
+    private int[] docLengths = new int[1024];
+    private int docCount;
+    private long totalLength;
+    private final BitSet removed = new BitSet();
+    private int removedCount;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Hit(long docId, float score) {
+    }
+
+    /**
+     * Adds one document. {@code termFrequencies} maps each distinct term to its count;
+     * {@code length} is the total number of indexed tokens.
+     */
+    public void add(long docId, Map<String, Integer> termFrequencies, int length) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = docCount++;
+            if (ordinal == docIds.length) {
+                docIds = Arrays.copyOf(docIds, ordinal * 2);
+                docLengths = Arrays.copyOf(docLengths, ordinal * 2);
+            }
+            docIds[ordinal] = docId;
+            docLengths[ordinal] = length;
+            totalLength += length;
+
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                int termId = termIds.computeIfAbsent(entry.getKey(), key -> newTerm());
+                appendPosting(termId, ordinal, entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every entry whose id matches {@code ids} and returns how many there were.
+     */
+    public int removeIf(LongPredicate ids) {
+        lock.writeLock().lock();
+        try {
+            int count = 0;
+            for (int ordinal = 0; ordinal < docCount; ordinal++) {
+                if (!removed.get(ordinal) && ids.test(docIds[ordinal])) {
+                    removed.set(ordinal);
+                    totalLength -= docLengths[ordinal];
+                    count++;
+                }
+            }
+            removedCount += count;
+            return count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the entries with ids from {@code fromId} (inclusive) to {@code toId} (exclusive)
+     * and returns how many there were. Only valid if ids were added in ascending order.
+     */
+    public int removeRange(long fromId, long toId) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = Arrays.binarySearch(docIds, 0, docCount, fromId);
+            if (ordinal < 0) {
+                ordinal = -ordinal - 1;
+            }
+            int count = 0;
+            for (; ordinal < docCount && docIds[ordinal] < toId; ordinal++) {
+                if (!removed.get(ordinal)) {
+                    removed.set(ordinal);
+                    totalLength -= docLengths[ordinal];
+                    count++;
+                }
+            }
+            removedCount += count;
+            return count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Hit> search(List<String> queryTerms, int limit, LongPredicate visible) {
+        lock.readLock().lock();
+        try {
+            int liveCount = docCount - removedCount;
+            if (liveCount == 0 || queryTerms.isEmpty()) {
+                return List.of();
+            }
+            float avgLength = (float) totalLength / liveCount;
+            float[] scores = new float[docCount];
+            int[] touched = new int[16];
+            int touchedCount = 0;
+
+            for (String term : queryTerms.stream().distinct().toList()) {
+                Integer termId = termIds.get(term);
+                if (termId == null) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveCount - docFreq[termId] + 0.5) / (docFreq[termId] + 0.5));
+                byte[] data = postings[termId];
+                int end = postingsSize[termId];
+                int pos = 0;
+                int ordinal = 0;
+                while (pos < end) {
+                    int delta = 0;
+                    int shift = 0;
+                    byte b;
+                    do {
+                        b = data[pos++];
+                        delta |= (b & 0x7F) << shift;
+                        shift += 7;
+                    } while ((b & 0x80) != 0);
+                    int tf = 0;
+                    shift = 0;
+                    do {
+                        b = data[pos++];
+                        tf |= (b & 0x7F) << shift;
+                        shift += 7;
+                    } while ((b & 0x80) != 0);
+                    ordinal += delta;
+                    // Removed since the last purge
+                    if (removed.get(ordinal)) {
+                        continue;
+                    }
+
+                    float norm = K1 * (1 - B + B * docLengths[ordinal] / avgLength);
+                    if (scores[ordinal] == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = ordinal;
+                    }
+                    scores[ordinal] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(Hit::score));
+            for (int i = 0; i < touchedCount; i++) {
+                int ordinal = touched[i];
+                float score = scores[ordinal];
+                if (top.size() == limit && score <= top.peek().score()) {
+                    continue;
+                }
+                long docId = docIds[ordinal];
+                if (!visible.test(docId)) {
+                    continue;
+                }
+                top.add(new Hit(docId, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount - removedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return termIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int newTerm() {
+        int termId = termIds.size();
+        if (termId == postings.length) {
+            int capacity = termId * 2;
+            postings = Arrays.copyOf(postings, capacity);
+            postingsSize = Arrays.copyOf(postingsSize, capacity);
+            lastOrdinal = Arrays.copyOf(lastOrdinal, capacity);
+            docFreq = Arrays.copyOf(docFreq, capacity);
+        }
+        postings[termId] = new byte[8];
+        return termId;
+    }
+
+    private void appendPosting(int termId, int ordinal, int tf) {
+        int delta = ordinal - lastOrdinal[termId];
+        lastOrdinal[termId] = ordinal;
+        docFreq[termId]++;
+
+        byte[] data = postings[termId];
+        int pos = postingsSize[termId];
+        if (pos + 10 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, pos + 10));
+            postings[termId] = data;
+        }
+        pos = writeVarint(data, pos, delta);
+        pos = writeVarint(data, pos, tf);
+        postingsSize[termId] = pos;
+    }
+
+    /**
+     * Drops removed entries from the postings, recounts the document frequencies and gives
+     * the remaining entries consecutive ordinals again. The new posting lists are built from
+     * a snapshot without holding the lock, so searches and adds go on meanwhile; the write
+     * lock is only held to carry over what was added since, re-number what was removed since,
+     * and swap the new arrays in. A re-based delta never takes more bytes than the postings
+     * it replaces, so each rebuilt list fits in its old size. Returns false when nothing was
+     * removed.
+     */
+    public synchronized boolean purge() {
+        int count;
+        int terms;
+        BitSet gone;
+        byte[][] data;
+        int[] sizes;
+        int[] lasts;
+        long[] snapshotIds;
+        int[] snapshotLengths;
+        lock.readLock().lock();
+        try {
+            if (removedCount == 0) {
+                return false;
+            }
+            count = docCount;
+            terms = termIds.size();
+            gone = (BitSet) removed.clone();
+            // Adds only write past these sizes or into grown copies, so the bytes below stay put
+            data = Arrays.copyOf(postings, terms);
+            sizes = Arrays.copyOf(postingsSize, terms);
+            lasts = Arrays.copyOf(lastOrdinal, terms);
+            snapshotIds = docIds;
+            snapshotLengths = docLengths;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int[] remap = new int[count];
+        int kept = 0;
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            remap[ordinal] = gone.get(ordinal) ? -1 : kept++;
+        }
+        byte[][] rebuilt = new byte[terms][];
+        int[] rebuiltSize = new int[terms];
+        int[] rebuiltLast = new int[terms];
+        int[] rebuiltFreq = new int[terms];
+        int[] value = new int[1];
+        for (int termId = 0; termId < terms; termId++) {
+            byte[] list = data[termId];
+            byte[] out = new byte[Math.max(8, sizes[termId])];
+            int pos = 0;
+            int ordinal = 0;
+            int written = 0;
+            int previous = 0;
+            int frequency = 0;
+            while (pos < sizes[termId]) {
+                pos = readVarint(list, pos, value);
+                ordinal += value[0];
+                pos = readVarint(list, pos, value);
+                int mapped = remap[ordinal];
+                if (mapped < 0) {
+                    continue;
+                }
+                written = writeVarint(out, written, mapped - previous);
+                written = writeVarint(out, written, value[0]);
+                previous = mapped;
+                frequency++;
+            }
+            rebuilt[termId] = out;
+            rebuiltSize[termId] = written;
+            rebuiltLast[termId] = previous;
+            rebuiltFreq[termId] = frequency;
+        }
+        long[] ids = new long[Math.max(1024, kept * 2)];
+        int[] lengths = new int[ids.length];
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            if (remap[ordinal] >= 0) {
+                ids[remap[ordinal]] = snapshotIds[ordinal];
+                lengths[remap[ordinal]] = snapshotLengths[ordinal];
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Entries added since the snapshot follow the kept ones
+            int added = docCount - count;
+            if (kept + added > ids.length) {
+                ids = Arrays.copyOf(ids, (kept + added) * 2);
+                lengths = Arrays.copyOf(lengths, ids.length);
+            }
+            System.arraycopy(docIds, count, ids, kept, added);
+            System.arraycopy(docLengths, count, lengths, kept, added);
+
+            // Entries removed since the snapshot stay masked until the next purge
+            BitSet masked = new BitSet();
+            int maskedCount = 0;
+            for (int ordinal = removed.nextSetBit(0); ordinal >= 0; ordinal = removed.nextSetBit(ordinal + 1)) {
+                if (ordinal >= count) {
+                    masked.set(kept + ordinal - count);
+                    maskedCount++;
+                } else if (!gone.get(ordinal)) {
+                    masked.set(remap[ordinal]);
+                    maskedCount++;
+                }
+            }
+
+            byte[][] oldPostings = postings;
+            int[] oldSizes = postingsSize;
+            int capacity = oldPostings.length;
+            postings = Arrays.copyOf(rebuilt, capacity);
+            postingsSize = Arrays.copyOf(rebuiltSize, capacity);
+            lastOrdinal = Arrays.copyOf(rebuiltLast, capacity);
+            docFreq = Arrays.copyOf(rebuiltFreq, capacity);
+            for (int termId = 0; termId < termIds.size(); termId++) {
+                int pos = 0;
+                int ordinal = 0;
+                if (termId < terms) {
+                    pos = sizes[termId];
+                    ordinal = lasts[termId];
+                } else {
+                    postings[termId] = new byte[8];
+                }
+                byte[] list = oldPostings[termId];
+                while (pos < oldSizes[termId]) {
+                    pos = readVarint(list, pos, value);
+                    ordinal += value[0];
+                    pos = readVarint(list, pos, value);
+                    appendPosting(termId, kept + ordinal - count, value[0]);
+                }
+            }
+
+            docIds = ids;
+            docLengths = lengths;
+            docCount = kept + added;
+            removed.clear();
+            removed.or(masked);
+            removedCount = maskedCount;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int readVarint(byte[] data, int pos, int[] value) {
+        int result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos++];
+            result |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        value[0] = result;
+        return pos;
+    }
+
+    private static int writeVarint(byte[] data, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            data[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[pos++] = (byte) value;
+        return pos;
+    }
+}
@@ -0,0 +1,403 @@
+package com.example.neura_search.index;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar index of document properties for filtered, faceted listings. Rows are
+ * addressed by document id, which the store hands out densely, so per-row arrays
+ * indexed by id stay compact. String columns are dictionary-encoded: one int code per
+ * row plus a compressed bitmap of the rows holding each value, so equality filters are
+ * bitmap unions and intersections. Numeric columns keep one long per row and a
+ * value-sorted run of rows for range filters; rows added since the run was last merged
+ * sit in a short unsorted tail that queries scan and the next query merges.
+ */
+public class MetadataIndex {
+    private static final long MISSING = Long.MIN_VALUE;
+    private static final int NO_CODE = -1;
+    // Above this many distinct values, facet counts come from a scan of the matching rows
+    private static final int MAX_BITMAP_FACET_VALUES = 64;
+    private static final int INITIAL_ROWS = 1024;
+
+    private final Map<String, StringColumn> strings = new LinkedHashMap<>();
+    private final Map<String, NumericColumn> numbers = new LinkedHashMap<>();
+    private final RoaringBitmap rows = new RoaringBitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record FacetCount(String value, int count) {
+    }
+
+    /**
+     * Matching documents in id order: {@code total} counts every match, {@code ids} holds the
+     * requested page and {@code facets} the most frequent values per requested column.
+     */
+    public record Result(int total, List<Long> ids, boolean more, Map<String, List<FacetCount>> facets) {
+    }
+
+    public MetadataIndex(Collection<String> stringColumns, Collection<String> numericColumns) {
+        stringColumns.forEach(name -> strings.put(name, new StringColumn()));
+        numericColumns.forEach(name -> numbers.put(name, new NumericColumn()));
+    }
+
+    /**
+     * Adds or replaces the row of {@code docId}. Columns without a value are left empty and
+     * never match a filter on that column.
+     */
+    public void put(long docId, Map<String, String> stringValues, Map<String, Long> numericValues) {
+        int row = row(docId);
+        lock.writeLock().lock();
+        try {
+            rows.add(row);
+            strings.forEach((name, column) -> column.set(row, stringValues.get(name)));
+            numbers.forEach((name, column) -> {
+                Long value = numericValues.get(name);
+                column.set(row, value == null ? MISSING : value);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long docId) {
+        if (docId < 0 || docId > Integer.MAX_VALUE) {
+            return;
+        }
+        int row = (int) docId;
+        lock.writeLock().lock();
+        try {
+            if (!rows.contains(row)) {
+                return;
+            }
+            rows.remove(row);
+            strings.values().forEach(column -> column.set(row, null));
+            // Leaves a stale entry in the sorted run, dropped by the next merge
+            numbers.values().forEach(column -> column.set(row, MISSING));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long docId) {
+        lock.readLock().lock();
+        try {
+            return docId >= 0 && docId <= Integer.MAX_VALUE && rows.contains((int) docId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Result query(Query query) {
+        query.validate(this);
+        // A racy read is fine here: rows added after it are still found by the tail scan
+        if (query.ranges.keySet().stream().anyMatch(name -> numbers.get(name).tailSize > 0)) {
+            lock.writeLock().lock();
+            try {
+                query.ranges.keySet().forEach(name -> numbers.get(name).merge());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = query.within == null ? rows.clone() : RoaringBitmap.and(rows, query.within);
+            for (Map.Entry<String, Collection<String>> filter : query.equals.entrySet()) {
+                matches.and(strings.get(filter.getKey()).matching(filter.getValue()));
+            }
+            for (Map.Entry<String, long[]> filter : query.ranges.entrySet()) {
+                long[] bounds = filter.getValue();
+                matches.and(numbers.get(filter.getKey()).between(bounds[0], bounds[1]));
+            }
+
+            List<Long> ids = new ArrayList<>(Math.min(query.limit, 1024));
+            PeekableIntIterator iterator = matches.getIntIterator();
+            if (query.after >= 0) {
+                iterator.advanceIfNeeded((int) Math.min(query.after + 1, Integer.MAX_VALUE));
+            }
+            while (iterator.hasNext() && ids.size() < query.limit) {
+                ids.add((long) iterator.next());
+            }
+
+            Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+            for (String name : query.facets) {
+                facets.put(name, strings.get(name).facet(matches, query.facetLimit));
+            }
+            return new Result(matches.getCardinality(), ids, iterator.hasNext(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int row(long docId) {
+        if (docId < 0 || docId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Document id out of range for the metadata index: " + docId);
+        }
+        return (int) docId;
+    }
+
+    private static int capacityFor(int row, int current) {
+        int capacity = Math.max(current, INITIAL_ROWS);
+        while (capacity <= row) {
+            capacity = capacity > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : capacity * 2;
+        }
+        return capacity;
+    }
+
+    /**
+     * Filter, paging and facet request. Equality filters on one column are OR-ed, filters on
+     * different columns AND-ed; ranges are inclusive.
+     */
+    public static final class Query {
+        private final Map<String, Collection<String>> equals = new LinkedHashMap<>();
+        private final Map<String, long[]> ranges = new LinkedHashMap<>();
+        private final List<String> facets = new ArrayList<>();
+        private RoaringBitmap within;
+        private long after = -1;
+        private int limit = 20;
+        private int facetLimit = 10;
+
+        public Query equalTo(String column, Collection<String> values) {
+            equals.put(column, values);
+            return this;
+        }
+
+        public Query between(String column, long min, long max) {
+            ranges.put(column, new long[]{min, max});
+            return this;
+        }
+
+        /**
+         * Restricts matches to the documents in {@code docIds}, e.g. the ones the caller may read.
+         */
+        public Query within(RoaringBitmap docIds) {
+            this.within = docIds;
+            return this;
+        }
+
+        public Query facet(String column) {
+            facets.add(column);
+            return this;
+        }
+
+        /**
+         * Starts the page after document {@code docId}.
+         */
+        public Query after(long docId) {
+            this.after = docId;
+            return this;
+        }
+
+        public Query limit(int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public Query facetLimit(int facetLimit) {
+            this.facetLimit = facetLimit;
+            return this;
+        }
+
+        private void validate(MetadataIndex index) {
+            for (String column : equals.keySet()) {
+                if (!index.strings.containsKey(column)) {
+                    throw new IllegalArgumentException("Unknown column: " + column);
+                }
+            }
+            for (String column : ranges.keySet()) {
+                if (!index.numbers.containsKey(column)) {
+                    throw new IllegalArgumentException("Unknown numeric column: " + column);
+                }
+            }
+            for (String column : facets) {
+                if (!index.strings.containsKey(column)) {
+                    throw new IllegalArgumentException("Cannot facet on column: " + column);
+                }
+            }
+        }
+    }
+
+    /**
+     * Values are matched case-insensitively and reported in the spelling first seen.
+     */
+    private static final class StringColumn {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<RoaringBitmap> postings = new ArrayList<>();
+        private int[] rowCodes = new int[0];
+
+        void set(int row, String value) {
+            if (row >= rowCodes.length) {
+                int length = rowCodes.length;
+                rowCodes = Arrays.copyOf(rowCodes, capacityFor(row, length));
+                Arrays.fill(rowCodes, length, rowCodes.length, NO_CODE);
+            }
+            int previous = rowCodes[row];
+            if (previous != NO_CODE) {
+                postings.get(previous).remove(row);
+            }
+            if (value == null) {
+                rowCodes[row] = NO_CODE;
+                return;
+            }
+            int code = codes.computeIfAbsent(value.toLowerCase(Locale.ROOT), key -> {
+                values.add(value);
+                postings.add(new RoaringBitmap());
+                return values.size() - 1;
+            });
+            rowCodes[row] = code;
+            postings.get(code).add(row);
+        }
+
+        RoaringBitmap matching(Collection<String> wanted) {
+            RoaringBitmap matches = new RoaringBitmap();
+            for (String value : wanted) {
+                Integer code = codes.get(value.toLowerCase(Locale.ROOT));
+                if (code != null) {
+                    matches.or(postings.get(code));
+                }
+            }
+            return matches;
+        }
+
+        List<FacetCount> facet(RoaringBitmap within, int limit) {
+            int[] counts = new int[values.size()];
+            if (values.size() <= MAX_BITMAP_FACET_VALUES) {
+                for (int code = 0; code < counts.length; code++) {
+                    counts[code] = RoaringBitmap.andCardinality(postings.get(code), within);
+                }
+            } else {
+                within.forEach((int row) -> {
+                    int code = row < rowCodes.length ? rowCodes[row] : NO_CODE;
+                    if (code != NO_CODE) {
+                        counts[code]++;
+                    }
+                });
+            }
+            List<FacetCount> facets = new ArrayList<>();
+            for (int code = 0; code < counts.length; code++) {
+                if (counts[code] > 0) {
+                    facets.add(new FacetCount(values.get(code), counts[code]));
+                }
+            }
+            facets.sort(Comparator.comparingInt(FacetCount::count).reversed().thenComparing(FacetCount::value));
+            return facets.size() > limit ? List.copyOf(facets.subList(0, limit)) : facets;
+        }
+    }
+
+    private static final class NumericColumn {
+        private long[] rowValues = new long[0];
+        // Rows with a value, ordered by it; entries whose row has since changed value are stale
+        private int[] sortedRows = new int[0];
+        private long[] sortedValues = new long[0];
+        private int[] tail = new int[16];
+        private int tailSize;
+
+        void set(int row, long value) {
+            if (row >= rowValues.length) {
+                int length = rowValues.length;
+                rowValues = Arrays.copyOf(rowValues, capacityFor(row, length));
+                Arrays.fill(rowValues, length, rowValues.length, MISSING);
+            }
+            rowValues[row] = value;
+            if (value != MISSING) {
+                if (tailSize == tail.length) {
+                    tail = Arrays.copyOf(tail, tailSize * 2);
+                }
+                tail[tailSize++] = row;
+            }
+        }
+
+        RoaringBitmap between(long min, long max) {
+            int from = lowerBound(min);
+            int to = max == Long.MAX_VALUE ? sortedValues.length : lowerBound(max + 1);
+            RoaringBitmap matches = new RoaringBitmap();
+            for (int i = from; i < to; i++) {
+                int row = sortedRows[i];
+                if (rowValues[row] == sortedValues[i]) {
+                    matches.add(row);
+                }
+            }
+            for (int i = 0; i < tailSize; i++) {
+                long value = rowValues[tail[i]];
+                if (value != MISSING && value >= min && value <= max) {
+                    matches.add(tail[i]);
+                }
+            }
+            return matches;
+        }
+
+        /**
+         * Sorts the tail and merges it into the sorted run, dropping stale entries.
+         */
+        void merge() {
+            if (tailSize == 0) {
+                return;
+            }
+            Integer[] added = new Integer[tailSize];
+            for (int i = 0; i < tailSize; i++) {
+                added[i] = tail[i];
+            }
+            Arrays.sort(added, Comparator.comparingLong(row -> rowValues[row]));
+
+            int[] rowsOut = new int[sortedRows.length + added.length];
+            long[] valuesOut = new long[rowsOut.length];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < sortedRows.length || j < added.length) {
+                int row;
+                long value;
+                if (j == added.length || (i < sortedRows.length && sortedValues[i] <= rowValues[added[j]])) {
+                    row = sortedRows[i];
+                    value = sortedValues[i++];
+                    if (rowValues[row] != value) {
+                        continue;
+                    }
+                } else {
+                    row = added[j++];
+                    value = rowValues[row];
+                }
+                rowsOut[n] = row;
+                valuesOut[n++] = value;
+            }
+            sortedRows = Arrays.copyOf(rowsOut, n);
+            sortedValues = Arrays.copyOf(valuesOut, n);
+            tailSize = 0;
+        }
+
+        private int lowerBound(long value) {
+            int low = 0;
+            int high = sortedValues.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortedValues[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.neura_search.index;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Set;
+
+/**
+ * Builds a short plain-text excerpt around the first query term in a stream,
+ * keeping only a fixed window of characters in memory.
+ */
+public final class Snippets {
+    private static final int BEFORE = 80;
+    private static final int LENGTH = 240;
+
+    private Snippets() {
+    }
+
+    public static String build(Reader reader, Set<String> terms) throws IOException {
+        char[] history = new char[BEFORE];
+        long read = 0;
+        StringBuilder token = new StringBuilder();
+        StringBuilder snippet = null;
+        int c;
+        while ((c = reader.read()) != -1 && (snippet == null || snippet.length() < LENGTH)) {
+            char ch = (char) c;
+            if (snippet != null) {
+                snippet.append(ch);
+                continue;
+            }
+            history[(int) (read++ % BEFORE)] = ch;
+            if (Character.isLetterOrDigit(ch)) {
+                token.append(Character.toLowerCase(ch));
+            } else {
+                if (terms.contains(token.toString())) {
+                    snippet = tail(history, read);
+                }
+                token.setLength(0);
+            }
+        }
+        if (snippet == null && terms.contains(token.toString())) {
+            snippet = tail(history, read);
+        }
+        return snippet == null ? "" : snippet.toString().replaceAll("\\s+", " ").trim();
+    }
+
+    /**
+     * Collapsed-whitespace prefix of {@code text}, used when no query term occurs in it.
+     */
+    public static String head(String text, int length) {
+        String collapsed = text.replaceAll("\\s+", " ").trim();
+        return collapsed.length() > length ? collapsed.substring(0, length) : collapsed;
+    }
+
+    private static StringBuilder tail(char[] history, long read) {
+        StringBuilder out = new StringBuilder(LENGTH);
+        for (long i = Math.max(0, read - history.length); i < read; i++) {
+            out.append(history[(int) (i % history.length)]);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.neura_search.model;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory record of a single upload moving through the ingestion executor.
+ * Workers update state and progress; the status endpoint reads them concurrently.
+ */
+public class IngestionJob {
+    private final String id;
+    private final String owner;
+    private final String fileName;
+    private final String contentType;
+    private final long size;
+    private final Path spoolFile;
+    private final Long replaces;
+    private final Instant createdAt = Instant.now();
+    private final AtomicLong bytesProcessed = new AtomicLong();
+
+    private volatile String fingerprint;
+    private volatile JobState state = JobState.QUEUED;
+    private volatile Long documentId;
+    private volatile boolean deduplicated;
+    private volatile String result;
+    private volatile String error;
+    private volatile Instant finishedAt;
+
+    public IngestionJob(String id, String owner, String fileName, String contentType, long size, Path spoolFile) {
+        this(id, owner, fileName, contentType, size, spoolFile, null);
+    }
+
+    /**
+     * A job whose document replaces document {@code replaces}, or a plain upload when it is null.
+     */
+    public IngestionJob(String id, String owner, String fileName, String contentType, long size, Path spoolFile,
+                        Long replaces) {
+        this.id = id;
+        this.owner = owner;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.size = size;
+        this.spoolFile = spoolFile;
+        this.replaces = replaces;
+    }
+
+    /**
+     * Set by the worker once it has hashed the spooled upload.
+     */
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public void markRunning() {
+        state = JobState.RUNNING;
+    }
+
+    public void markCompleted(long documentId, String result) {
+        this.documentId = documentId;
+        this.result = result;
+        this.finishedAt = Instant.now();
+        this.state = JobState.COMPLETED;
+    }
+
+    public void markDeduplicated(long documentId) {
+        this.deduplicated = true;
+        markCompleted(documentId, "File already ingested as document " + documentId + ".");
+    }
+
+    public void markFailed(String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.state = JobState.FAILED;
+    }
+
+    public void addBytesProcessed(long bytes) {
+        bytesProcessed.addAndGet(bytes);
+    }
+
+    public boolean isFinished() {
+        return state == JobState.COMPLETED || state == JobState.FAILED;
+    }
+
+    public int getProgressPercent() {
+        if (state == JobState.COMPLETED) {
+            return 100;
+        }
+        if (size <= 0) {
+            return 0;
+        }
+        return (int) Math.min(99, bytesProcessed.get() * 100 / size);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public Path getSpoolFile() {
+        return spoolFile;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Long getReplaces() {
+        return replaces;
+    }
+
+    public boolean isDeduplicated() {
+        return deduplicated;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed.get();
+    }
+
+    public JobState getState() {
+        return state;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+}
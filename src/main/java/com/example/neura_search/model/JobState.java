@@ -0,0 +1,8 @@
+package com.example.neura_search.model;
+
+public enum JobState {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
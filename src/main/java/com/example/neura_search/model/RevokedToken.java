@@ -0,0 +1,44 @@
+package com.example.neura_search.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Access token id (jti) revoked before its natural expiry. Rows can be purged once
+ * {@code expiresAt} has passed, since the token is rejected as expired from then on.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = @Index(columnList = "revoked_at"))
+public class RevokedToken {
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    public RevokedToken() {
+    }
+
+    public RevokedToken(String jti, Instant expiresAt, Instant revokedAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+        this.revokedAt = revokedAt;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.neura_search.repository;
 
+import com.example.neura_search.dto.UserSummary;
 import com.example.neura_search.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +17,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
+
+    /**
+     * Seek page over the primary key: reads only the listed columns, with no entity or roles.
+     */
+    @Query("select new com.example.neura_search.dto.UserSummary(u.id, u.username, u.email) "
+            + "from User u where u.id > :afterId order by u.id")
+    List<UserSummary> findSummariesAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("select u.id as userId, r.name as role from User u join u.roles r where u.id in :ids")
+    List<UserRoleRow> findRoles(@Param("ids") Collection<Long> ids);
+
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
\ No newline at end of file
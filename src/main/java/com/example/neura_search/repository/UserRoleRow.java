@@ -0,0 +1,12 @@
+package com.example.neura_search.repository;
+
+import com.example.neura_search.model.ERole;
+
+/**
+ * One (user, role) pair from the join table, for attaching roles to a page of users.
+ */
+public interface UserRoleRow {
+    Long getUserId();
+
+    ERole getRole();
+}
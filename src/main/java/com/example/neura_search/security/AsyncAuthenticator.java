@@ -0,0 +1,39 @@
+package com.example.neura_search.security;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs username/password authentication on the bounded hashing pool so request
+ * threads are not held while BCrypt runs.
+ */
+@Component
+public class AsyncAuthenticator {
+    private final AuthenticationManager authenticationManager;
+    private final Executor authExecutor;
+
+    public AsyncAuthenticator(AuthenticationManager authenticationManager,
+                              @Qualifier("authExecutor") Executor authExecutor) {
+        this.authenticationManager = authenticationManager;
+        this.authExecutor = authExecutor;
+    }
+
+    /**
+     * Queues an authentication attempt. The returned future completes with the
+     * authenticated token, whose principal is the {@link UserPrincipal} loaded for the check,
+     * or exceptionally with the {@code AuthenticationException}.
+     *
+     * @throws RejectedExecutionException if the hashing pool and its queue are full
+     */
+    public CompletableFuture<Authentication> authenticate(String username, String password) {
+        UsernamePasswordAuthenticationToken request = new UsernamePasswordAuthenticationToken(username, password);
+        return CompletableFuture.supplyAsync(() -> authenticationManager.authenticate(request), authExecutor);
+    }
+}
@@ -0,0 +1,381 @@
+package com.example.neura_search.security;
+
+import com.example.neura_search.chunk.TextChunk;
+import com.example.neura_search.index.DocumentIndexer;
+import com.example.neura_search.store.StoredDocument;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Who may read which document, as compressed bitmaps of document ids keyed by username
+ * and by role. Owners come from the store's record headers through the indexing pipeline
+ * and are kept apart from grants, so copying a document's grants never copies ownership;
+ * grants (sharing) are appended to {@code acl.bin} as {@code byte op | byte kind | long docId | short nameLen | name}
+ * records and replayed on startup. A query ORs the caller's user and role bitmaps once,
+ * intersects them with the documents still in the store and tests candidates against the
+ * result, so access checks never touch the database; a single document is checked against
+ * the bitmaps directly. Deleting a document logs revokes for its grants, and once the log
+ * holds more than twice as many records as there are grants it is rewritten on startup.
+ */
+@Component
+public class DocumentAccessIndex implements DocumentIndexer {
+    private static final byte REVOKE = 0;
+    private static final byte GRANT = 1;
+    private static final byte USER = 'u';
+    private static final byte ROLE = 'r';
+    private static final String ADMIN_AUTHORITY = "ROLE_ADMIN";
+    private static final int HEADER_BYTES = 1 + 1 + Long.BYTES + 2;
+
+    @Value("${app.store.dir:data/store}")
+    private String storeDir;
+
+    private final Map<String, RoaringBitmap> owners = new HashMap<>();
+    private final Map<String, RoaringBitmap> users = new HashMap<>();
+    private final Map<String, RoaringBitmap> roles = new HashMap<>();
+    // Documents in the store, as handed in by the pipeline
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Path file;
+    private FileChannel log;
+
+    /**
+     * Principals other than the owner that were granted a document.
+     */
+    public record Grants(List<String> users, List<String> roles) {
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path root = Paths.get(storeDir);
+        Files.createDirectories(root);
+        file = root.resolve("acl.bin");
+        ByteBuffer records = ByteBuffer.wrap(Files.exists(file) ? Files.readAllBytes(file) : new byte[0]);
+        long valid = 0;
+        int replayed = 0;
+        while (records.hasRemaining()) {
+            try {
+                byte op = records.get();
+                byte kind = records.get();
+                long docId = records.getLong();
+                byte[] name = new byte[records.getShort() & 0xFFFF];
+                records.get(name);
+                apply(op, kind, row(docId), new String(name, StandardCharsets.UTF_8));
+                valid = records.position();
+                replayed++;
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                break;
+            }
+        }
+        if (replayed > 2 * grantCount()) {
+            compact();
+            valid = Files.size(file);
+        }
+        log = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Drop a torn record left by a crash mid-append
+        log.truncate(valid);
+    }
+
+    /**
+     * Rewrites {@code acl.bin} as one grant record per grant held in memory, dropping
+     * revokes and the grants they cancelled.
+     */
+    private void compact() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            for (Map.Entry<String, RoaringBitmap> entry : users.entrySet()) {
+                for (int row : entry.getValue()) {
+                    position = write(out, position, GRANT, USER, row, entry.getKey().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            for (Map.Entry<String, RoaringBitmap> entry : roles.entrySet()) {
+                for (int row : entry.getValue()) {
+                    position = write(out, position, GRANT, ROLE, row, entry.getKey().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            out.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private long grantCount() {
+        long count = 0;
+        for (RoaringBitmap bitmap : users.values()) {
+            count += bitmap.getLongCardinality();
+        }
+        for (RoaringBitmap bitmap : roles.values()) {
+            count += bitmap.getLongCardinality();
+        }
+        return count;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    @Override
+    public boolean needs(StoredDocument document) {
+        lock.readLock().lock();
+        try {
+            return !live.contains(row(document.id()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void stored(StoredDocument document) {
+        int row = row(document.id());
+        lock.writeLock().lock();
+        try {
+            owners.computeIfAbsent(document.owner(), name -> new RoaringBitmap()).add(row);
+            live.add(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops {@code docId} and logs a revoke for each of its grants, so a compaction leaves
+     * nothing behind for it.
+     */
+    @Override
+    public void removed(long docId) throws IOException {
+        int row = row(docId);
+        lock.writeLock().lock();
+        try {
+            live.remove(row);
+            owners.values().forEach(bitmap -> bitmap.remove(row));
+            for (Map.Entry<String, RoaringBitmap> entry : users.entrySet()) {
+                if (entry.getValue().contains(row)) {
+                    append(REVOKE, USER, docId, entry.getKey().getBytes(StandardCharsets.UTF_8));
+                    entry.getValue().remove(row);
+                }
+            }
+            for (Map.Entry<String, RoaringBitmap> entry : roles.entrySet()) {
+                if (entry.getValue().contains(row)) {
+                    append(REVOKE, ROLE, docId, entry.getKey().getBytes(StandardCharsets.UTF_8));
+                    entry.getValue().remove(row);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(StoredDocument document, List<TextChunk> chunks) {
+        // Ownership is in the record header, see stored()
+    }
+
+    public void grantUser(long docId, String username) throws IOException {
+        change(GRANT, USER, docId, username);
+    }
+
+    public void revokeUser(long docId, String username) throws IOException {
+        change(REVOKE, USER, docId, username);
+    }
+
+    public void grantRole(long docId, String role) throws IOException {
+        change(GRANT, ROLE, docId, role);
+    }
+
+    public void revokeRole(long docId, String role) throws IOException {
+        change(REVOKE, ROLE, docId, role);
+    }
+
+    /**
+     * Grants everyone who was granted {@code from} the same access to {@code to}; used when
+     * a document is replaced by a new version. Ownership is not a grant and is not copied.
+     */
+    public void copyGrants(long from, long to) throws IOException {
+        Grants grants = grants(from);
+        for (String user : grants.users()) {
+            grantUser(to, user);
+        }
+        for (String role : grants.roles()) {
+            grantRole(to, role);
+        }
+    }
+
+    /**
+     * The stored documents {@code authentication} may read, as a private copy; admins may
+     * read all of them.
+     */
+    public RoaringBitmap readableBy(Authentication authentication) {
+        List<String> authorities = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        lock.readLock().lock();
+        try {
+            if (authorities.contains(ADMIN_AUTHORITY)) {
+                return live.clone();
+            }
+            RoaringBitmap readable = new RoaringBitmap();
+            RoaringBitmap own = owners.get(authentication.getName());
+            if (own != null) {
+                readable.or(own);
+            }
+            RoaringBitmap granted = users.get(authentication.getName());
+            if (granted != null) {
+                readable.or(granted);
+            }
+            for (String authority : authorities) {
+                RoaringBitmap shared = roles.get(authority);
+                if (shared != null) {
+                    readable.or(shared);
+                }
+            }
+            // Replayed grants may name documents deleted since
+            readable.and(live);
+            return readable;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean canRead(long docId, Authentication authentication) {
+        if (docId < 0 || docId > Integer.MAX_VALUE) {
+            return false;
+        }
+        int row = (int) docId;
+        lock.readLock().lock();
+        try {
+            if (!live.contains(row)) {
+                return false;
+            }
+            if (contains(owners, authentication.getName(), row) || contains(users, authentication.getName(), row)) {
+                return true;
+            }
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                if (ADMIN_AUTHORITY.equals(authority.getAuthority())
+                        || contains(roles, authority.getAuthority(), row)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean contains(Map<String, RoaringBitmap> principals, String name, int row) {
+        RoaringBitmap bitmap = principals.get(name);
+        return bitmap != null && bitmap.contains(row);
+    }
+
+    /**
+     * Users and roles that were granted {@code docId}; the owner is not among them.
+     */
+    public Grants grants(long docId) {
+        int row = row(docId);
+        lock.readLock().lock();
+        try {
+            List<String> grantedUsers = new ArrayList<>();
+            users.forEach((name, bitmap) -> {
+                if (bitmap.contains(row)) {
+                    grantedUsers.add(name);
+                }
+            });
+            List<String> grantedRoles = new ArrayList<>();
+            roles.forEach((name, bitmap) -> {
+                if (bitmap.contains(row)) {
+                    grantedRoles.add(name);
+                }
+            });
+            grantedUsers.sort(null);
+            grantedRoles.sort(null);
+            return new Grants(grantedUsers, grantedRoles);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void change(byte op, byte kind, long docId, String name) throws IOException {
+        int row = row(docId);
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Principal name too long");
+        }
+        lock.writeLock().lock();
+        try {
+            RoaringBitmap bitmap = (kind == USER ? users : roles).get(name);
+            boolean present = bitmap != null && bitmap.contains(row);
+            if (present == (op == GRANT)) {
+                return;
+            }
+            append(op, kind, docId, nameBytes);
+            apply(op, kind, row, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void append(byte op, byte kind, long docId, byte[] nameBytes) throws IOException {
+        write(log, log.size(), op, kind, docId, nameBytes);
+    }
+
+    private static long write(FileChannel channel, long position, byte op, byte kind, long docId, byte[] nameBytes)
+            throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + nameBytes.length)
+                .put(op)
+                .put(kind)
+                .putLong(docId)
+                .putShort((short) nameBytes.length)
+                .put(nameBytes)
+                .flip();
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        return position;
+    }
+
+    private void apply(byte op, byte kind, int row, String name) {
+        Map<String, RoaringBitmap> principals = switch (kind) {
+            case USER -> users;
+            case ROLE -> roles;
+            default -> throw new IllegalArgumentException("Unknown principal kind: " + kind);
+        };
+        if (op == GRANT) {
+            principals.computeIfAbsent(name, key -> new RoaringBitmap()).add(row);
+        } else {
+            RoaringBitmap bitmap = principals.get(name);
+            if (bitmap != null) {
+                bitmap.remove(row);
+            }
+        }
+    }
+
+    private static int row(long docId) {
+        if (docId < 0 || docId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Document id out of range for the access index: " + docId);
+        }
+        return (int) docId;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.neura_search.security;
 
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,21 +24,34 @@ public class JwtTokenFilter extends OncePerRequestFilter{
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private UserStateCache userStateCache;
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Value("${app.auth.stateless:true}")
+    private boolean stateless;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, tokenProvider.getAuthorities(jwt));
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parseClaims(jwt).orElse(null) : null;
+            if (claims != null && revocationService.isRevoked(claims.getId())) {
+                claims = null;
+            }
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (claims != null) {
+                UsernamePasswordAuthenticationToken authentication = stateless
+                        ? authenticateFromClaims(claims)
+                        : authenticateFromDatabase(claims);
+                if (authentication != null) {
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
@@ -45,6 +60,31 @@ public class JwtTokenFilter extends OncePerRequestFilter{
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Builds the principal from the verified claims. The only state consulted is the
+     * cached token version and roles, which is refreshed from the database at most once
+     * per TTL per user.
+     */
+    private UsernamePasswordAuthenticationToken authenticateFromClaims(Claims claims) {
+        String username = claims.getSubject();
+        UserStateCache.UserState state = userStateCache.get(username).orElse(null);
+        if (state == null || tokenProvider.getTokenVersion(claims) < state.tokenVersion()) {
+            return null;
+        }
+        UserPrincipal principal = new UserPrincipal(state.id(), username, null, null,
+                state.tokenVersion(), state.authorities());
+        return new UsernamePasswordAuthenticationToken(principal, null, state.authorities());
+    }
+
+    private UsernamePasswordAuthenticationToken authenticateFromDatabase(Claims claims) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        if (userDetails instanceof UserPrincipal principal
+                && tokenProvider.getTokenVersion(claims) < principal.getTokenVersion()) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, null, tokenProvider.getAuthorities(claims));
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -2,6 +2,11 @@ package com.example.neura_search.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -15,79 +20,162 @@ import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration}")
     private long jwtExpirationInMs;
 
+    @Value("${app.jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
     private SecretKey secretKey;
+    // Immutable once built, so one instance is shared by all request threads
+    private JwtParser parser;
+    private TokenCache tokenCache;
+
+    private final Counter cachedTokens;
+    private final Counter verifiedTokens;
+    private final Counter malformedTokens;
+    private final Counter expiredTokens;
+    private final Counter unsupportedTokens;
+    private final Counter badSignatureTokens;
+    private final Counter emptyTokens;
+
+    public JwtTokenProvider(MeterRegistry meterRegistry) {
+        cachedTokens = validationCounter(meterRegistry, "cached");
+        verifiedTokens = validationCounter(meterRegistry, "verified");
+        malformedTokens = validationCounter(meterRegistry, "malformed");
+        expiredTokens = validationCounter(meterRegistry, "expired");
+        unsupportedTokens = validationCounter(meterRegistry, "unsupported");
+        badSignatureTokens = validationCounter(meterRegistry, "bad_signature");
+        emptyTokens = validationCounter(meterRegistry, "empty");
+    }
+
+    private static Counter validationCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("neura.auth.token.validation")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 
     @PostConstruct
     protected void init() {
         secretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(secretKey).build();
+        tokenCache = new TokenCache(cacheMaxSize);
     }
 
     public String createToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        return createToken((UserDetails) authentication.getPrincipal(), authentication.getAuthorities());
+    }
+
+    public String createToken(UserDetails userPrincipal) {
+        return createToken(userPrincipal, userPrincipal.getAuthorities());
+    }
 
+    private String createToken(UserDetails userPrincipal, Collection<? extends GrantedAuthority> grantedAuthorities) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
-        String authorities = authentication.getAuthorities().stream()
+        String authorities = grantedAuthorities.stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userPrincipal.getUsername())
                 .claim("roles", authorities)
-                .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
-                .signWith(secretKey)
-                .compact();
+                .setIssuedAt(now)
+                .setExpiration(expiryDate);
+        if (userPrincipal instanceof UserPrincipal principal) {
+            builder.claim("uid", principal.getId())
+                    .claim("ver", principal.getTokenVersion());
+        }
+        return builder.signWith(secretKey).compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
+    /**
+     * Verifies the token and returns its claims. Verification (HMAC check and JSON parse)
+     * happens at most once per distinct token while it is cached; invalid tokens yield empty.
+     */
+    public Optional<Claims> parseClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            emptyTokens.increment();
+            return Optional.empty();
+        }
+        String key = TokenCache.keyOf(token);
+        Claims cached = tokenCache.get(key);
+        if (cached != null) {
+            cachedTokens.increment();
+            return Optional.of(cached);
+        }
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            tokenCache.put(key, claims);
+            verifiedTokens.increment();
+            return Optional.of(claims);
+        } catch (MalformedJwtException ex) {
+            malformedTokens.increment();
+            log.debug("Invalid JWT token");
+        } catch (ExpiredJwtException ex) {
+            expiredTokens.increment();
+            log.debug("Expired JWT token");
+        } catch (UnsupportedJwtException ex) {
+            unsupportedTokens.increment();
+            log.debug("Unsupported JWT token");
+        } catch (SignatureException ex) {
+            badSignatureTokens.increment();
+            log.debug("Invalid JWT signature");
+        } catch (IllegalArgumentException ex) {
+            emptyTokens.increment();
+            log.debug("JWT claims string is empty");
+        }
+        return Optional.empty();
     }
 
-    public Collection<? extends GrantedAuthority> getAuthorities(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        String roles = (String) claims.get("roles");
-
+    public Collection<? extends GrantedAuthority> getAuthorities(Claims claims) {
+        String roles = claims.get("roles", String.class);
+        if (roles == null || roles.isBlank()) {
+            return List.of();
+        }
         return Arrays.stream(roles.split(","))
                 .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
     }
 
+    public Long getUserId(Claims claims) {
+        Number uid = claims.get("uid", Number.class);
+        return uid == null ? null : uid.longValue();
+    }
+
+    /**
+     * Token version the token was issued under; tokens predating this claim count as version 0.
+     */
+    public int getTokenVersion(Claims claims) {
+        Number version = claims.get("ver", Number.class);
+        return version == null ? 0 : version.intValue();
+    }
+
+    public String getUsernameFromToken(String token) {
+        return parseClaims(token).map(Claims::getSubject)
+                .orElseThrow(() -> new JwtException("Invalid JWT token"));
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities(String token) {
+        return parseClaims(token).map(this::getAuthorities)
+                .orElseThrow(() -> new JwtException("Invalid JWT token"));
+    }
+
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token);
-            return true;
-        } catch (MalformedJwtException ex) {
-            System.err.println("Invalid JWT token");
-        } catch (ExpiredJwtException ex) {
-            System.err.println("Expired JWT token");
-        } catch (UnsupportedJwtException ex) {
-            System.err.println("Unsupported JWT token");
-        } catch (IllegalArgumentException ex) {
-            System.err.println("JWT claims string is empty");
-        }
-        return false;
+        return parseClaims(token).isPresent();
     }
 }
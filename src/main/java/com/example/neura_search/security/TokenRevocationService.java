@@ -0,0 +1,128 @@
+package com.example.neura_search.security;
+
+import com.example.neura_search.model.RevokedToken;
+import com.example.neura_search.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Revocation list of access-token ids (jti). The persistent table is fronted by an
+ * in-memory bloom filter, so checking a token that was never revoked costs a few hash
+ * probes and no database access. Only bloom positives are confirmed against the table,
+ * and the answer is remembered. Revocations made by other nodes are pulled in periodically.
+ * Adding to the filter holds the read side of {@code filterLock}; a rebuild holds the write
+ * side from reading the table to swapping the filter, so no revocation falls between the two.
+ */
+@Component
+public class TokenRevocationService {
+    private static final int MAX_CONFIRMED = 100_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Map<String, Boolean> confirmed = new ConcurrentHashMap<>();
+    private final ReadWriteLock filterLock = new ReentrantReadWriteLock();
+    private volatile BloomFilter bloomFilter;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    @Value("${app.jwt.revocation.expected-entries:100000}")
+    private long expectedEntries;
+
+    @Value("${app.jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    @PostConstruct
+    public void load() {
+        rebuild();
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        Boolean known = confirmed.get(jti);
+        if (known != null) {
+            return known;
+        }
+        boolean revoked = revokedTokenRepository.existsById(jti);
+        remember(jti, revoked);
+        return revoked;
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null) {
+            return;
+        }
+        filterLock.readLock().lock();
+        try {
+            revokedTokenRepository.save(new RevokedToken(jti, expiresAt, Instant.now()));
+            bloomFilter.put(jti);
+            remember(jti, true);
+        } finally {
+            filterLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds revocations recorded by other nodes since the last sync.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval:30000}")
+    public void sync() {
+        filterLock.readLock().lock();
+        try {
+            Instant since = lastSync;
+            lastSync = Instant.now();
+            // Overlap by a few seconds to tolerate clock skew between nodes
+            for (RevokedToken token : revokedTokenRepository.findByRevokedAtAfter(since.minusSeconds(5))) {
+                bloomFilter.put(token.getJti());
+                remember(token.getJti(), true);
+            }
+        } finally {
+            filterLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Purges expired revocations and rebuilds the filter, which cannot delete entries itself.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.rebuild-interval:3600000}",
+            initialDelayString = "${app.jwt.revocation.rebuild-interval:3600000}")
+    public void rebuild() {
+        Instant now = Instant.now();
+        revokedTokenRepository.deleteExpired(now);
+        filterLock.writeLock().lock();
+        try {
+            BloomFilter rebuilt = new BloomFilter(expectedEntries, falsePositiveRate);
+            for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(now)) {
+                rebuilt.put(token.getJti());
+            }
+            bloomFilter = rebuilt;
+            confirmed.clear();
+            lastSync = now;
+        } finally {
+            filterLock.writeLock().unlock();
+        }
+    }
+
+    private void remember(String jti, boolean revoked) {
+        if (confirmed.size() >= MAX_CONFIRMED) {
+            confirmed.clear();
+        }
+        if (revoked) {
+            confirmed.put(jti, true);
+        } else {
+            // A lookup that raced a revoke() must not overwrite its answer
+            confirmed.putIfAbsent(jti, false);
+        }
+    }
+}
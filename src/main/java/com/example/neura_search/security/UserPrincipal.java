@@ -0,0 +1,68 @@
+package com.example.neura_search.security;
+
+import com.example.neura_search.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated user as seen by Spring Security. Built either from the {@link User}
+ * entity at login, or straight from verified token claims on the stateless request path,
+ * in which case there is no password hash.
+ */
+public class UserPrincipal implements UserDetails {
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String password;
+    private final int tokenVersion;
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    public UserPrincipal(Long id, String username, String email, String password, int tokenVersion,
+                         Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.password = password;
+        this.tokenVersion = tokenVersion;
+        this.authorities = authorities;
+    }
+
+    public static UserPrincipal from(User user) {
+        List<SimpleGrantedAuthority> authorities = user.getRoles().stream()
+                .map(role -> new SimpleGrantedAuthority(role.getName().name()))
+                .toList();
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(),
+                user.getTokenVersion(), authorities);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
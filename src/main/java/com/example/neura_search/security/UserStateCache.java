@@ -0,0 +1,65 @@
+package com.example.neura_search.security;
+
+import com.example.neura_search.model.User;
+import com.example.neura_search.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived snapshot of each active user's token version and roles, so the stateless
+ * request path can check revocation without a database round-trip. A miss or an expired
+ * snapshot costs one lookup; {@link #evict} makes a revocation visible immediately on this node.
+ */
+@Component
+public class UserStateCache {
+
+    public record UserState(Long id, int tokenVersion, List<GrantedAuthority> authorities, long loadedAtMillis) {
+    }
+
+    private final UserRepository userRepository;
+    private final Map<String, UserState> states = new ConcurrentHashMap<>();
+
+    @Value("${app.auth.user-cache-ttl:PT30S}")
+    private Duration ttl;
+
+    @Value("${app.auth.user-cache-max-size:100000}")
+    private int maxSize;
+
+    public UserStateCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public Optional<UserState> get(String username) {
+        long now = System.currentTimeMillis();
+        UserState state = states.get(username);
+        if (state != null && now - state.loadedAtMillis() < ttl.toMillis()) {
+            return Optional.of(state);
+        }
+        Optional<User> user = userRepository.findByUsername(username);
+        if (user.isEmpty()) {
+            states.remove(username);
+            return Optional.empty();
+        }
+        List<GrantedAuthority> authorities = user.get().getRoles().stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.getName().name()))
+                .toList();
+        UserState loaded = new UserState(user.get().getId(), user.get().getTokenVersion(), authorities, now);
+        if (states.size() >= maxSize) {
+            states.values().removeIf(s -> now - s.loadedAtMillis() >= ttl.toMillis());
+        }
+        states.put(username, loaded);
+        return Optional.of(loaded);
+    }
+
+    public void evict(String username) {
+        states.remove(username);
+    }
+}
@@ -0,0 +1,474 @@
+package com.example.neura_search.service;
+
+import com.example.neura_search.dto.BatchItemResult;
+import com.example.neura_search.extraction.ContentTypeDetector;
+import com.example.neura_search.extraction.DocumentMetadata;
+import com.example.neura_search.store.DocumentStore;
+import com.example.neura_search.store.FingerprintIndex;
+import com.example.neura_search.store.NewDocument;
+import com.example.neura_search.store.StoredDocument;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.tika.metadata.Metadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Ingests many files in one request. Each batch runs as a pipeline of stages on their own
+ * threads, connected by bounded queues so a fast stage waits for a slow one instead of
+ * piling up spooled files:
+ * <pre>
+ * spool parts -> detect + dedup (expands ZIP parts) -> extract (N workers) -> append to store -> chunk + index
+ * </pre>
+ * Store appends are grouped, so one batch of up to {@code write-batch} documents takes the
+ * store lock once. Every file ends with exactly one {@link BatchItemResult}, delivered on the
+ * calling thread as soon as it is known.
+ */
+@Service
+public class BatchIngestionService {
+    private static final Logger log = LoggerFactory.getLogger(BatchIngestionService.class);
+    private static final String ZIP = "application/zip";
+    private static final Item END = new Item(-1, null, null, false);
+
+    private final ContentTypeDetector contentTypeDetector;
+    private final FileProcessingService fileProcessingService;
+    private final DocumentStore documentStore;
+    private final FingerprintIndex fingerprintIndex;
+    private final IndexingPipeline indexingPipeline;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore running;
+
+    @Value("${app.ingest.spool-dir:${java.io.tmpdir}/neura-search/spool}")
+    private String spoolDir;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.ingest.batch.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${app.ingest.batch.extract-workers:0}")
+    private int extractWorkers;
+
+    @Value("${app.ingest.batch.write-batch:32}")
+    private int writeBatch;
+
+    @Value("${app.ingest.batch.max-archive-entries:1000}")
+    private int maxArchiveEntries;
+
+    @Value("${app.ingest.batch.max-archive-bytes:1073741824}")
+    private long maxArchiveBytes;
+
+    public BatchIngestionService(ContentTypeDetector contentTypeDetector, FileProcessingService fileProcessingService,
+                                 DocumentStore documentStore, FingerprintIndex fingerprintIndex,
+                                 IndexingPipeline indexingPipeline, MeterRegistry meterRegistry,
+                                 @Value("${app.ingest.batch.max-concurrent:4}") int maxConcurrent) {
+        this.contentTypeDetector = contentTypeDetector;
+        this.fileProcessingService = fileProcessingService;
+        this.documentStore = documentStore;
+        this.fingerprintIndex = fingerprintIndex;
+        this.indexingPipeline = indexingPipeline;
+        this.meterRegistry = meterRegistry;
+        this.running = new Semaphore(maxConcurrent);
+    }
+
+    @FunctionalInterface
+    public interface ResultSink {
+        void accept(BatchItemResult result) throws IOException;
+    }
+
+    /**
+     * Claims one of the {@code app.ingest.batch.max-concurrent} batch slots, or throws
+     * {@link RejectedExecutionException}. A successful call must be followed by {@link #ingest},
+     * which gives the slot back.
+     */
+    public void reserve() {
+        if (!running.tryAcquire()) {
+            throw new RejectedExecutionException("Too many batch uploads in progress");
+        }
+    }
+
+    /**
+     * Runs one batch and blocks until every file has been reported to {@code sink}. If the
+     * sink fails (the client went away), the remaining stages are stopped and their
+     * temporary files removed; documents already stored stay stored.
+     */
+    public void ingest(List<MultipartFile> files, String owner, ResultSink sink) throws IOException {
+        Run run = new Run(owner);
+        try {
+            run.start(files);
+            run.drain(sink);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while ingesting batch", e);
+        } finally {
+            run.stop();
+            running.release();
+        }
+    }
+
+    private static final class Item {
+        final int index;
+        final String fileName;
+        final String declaredType;
+        final boolean expandable;
+        Path spool;
+        long size;
+        String contentType;
+        String fingerprint;
+        Path text;
+        Map<String, String> attributes;
+        StoredDocument document;
+        // Identical items of the same write batch, reported once this one is indexed
+        List<Item> repeats = List.of();
+
+        Item(int index, String fileName, String declaredType, boolean expandable) {
+            this.index = index;
+            this.fileName = fileName;
+            this.declaredType = declaredType;
+            this.expandable = expandable;
+        }
+    }
+
+    private final class Run {
+        private final String owner;
+        private final int workers = extractWorkers > 0 ? extractWorkers : Runtime.getRuntime().availableProcessors();
+        private final BlockingQueue<Item> toDetect = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<Item> toExtract = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<Item> toWrite = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<Item> toIndex = new ArrayBlockingQueue<>(queueCapacity);
+        // Results are small and must never block a stage, so this one is unbounded
+        private final BlockingQueue<Object> results = new LinkedBlockingQueue<>();
+        private final AtomicInteger nextIndex = new AtomicInteger();
+        private final AtomicInteger extractorsLeft = new AtomicInteger();
+        private final Set<Path> temporary = ConcurrentHashMap.newKeySet();
+        private final List<Thread> threads = new ArrayList<>();
+
+        Run(String owner) {
+            this.owner = owner;
+        }
+
+        void start(List<MultipartFile> files) {
+            extractorsLeft.set(workers);
+            stage("batch-spool", () -> spool(files));
+            stage("batch-detect", this::detect);
+            for (int i = 1; i <= workers; i++) {
+                stage("batch-extract-" + i, this::extract);
+            }
+            stage("batch-write", this::write);
+            stage("batch-index", this::index);
+        }
+
+        void drain(ResultSink sink) throws IOException, InterruptedException {
+            for (Object next = results.take(); next != END; next = results.take()) {
+                sink.accept((BatchItemResult) next);
+            }
+        }
+
+        void stop() {
+            threads.forEach(Thread::interrupt);
+            for (Thread thread : threads) {
+                try {
+                    thread.join(TimeUnit.SECONDS.toMillis(10));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            temporary.forEach(this::delete);
+        }
+
+        private void stage(String name, StageBody body) {
+            Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+            Thread thread = builder.name(name).unstarted(() -> {
+                try {
+                    body.run();
+                } catch (InterruptedException e) {
+                    // The batch is being stopped
+                } catch (Exception e) {
+                    log.warn("Batch stage {} failed", name, e);
+                    results.add(new BatchItemResult(-1, null, "FAILED", null, 0, null, "Batch aborted: " + e.getMessage()));
+                    results.add(END);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        private void spool(List<MultipartFile> files) throws InterruptedException {
+            for (MultipartFile file : files) {
+                Item item = new Item(nextIndex.getAndIncrement(), file.getOriginalFilename(), file.getContentType(), true);
+                try {
+                    item.spool = newSpoolFile();
+                    file.transferTo(item.spool.toAbsolutePath().toFile());
+                    item.size = file.getSize();
+                    toDetect.put(item);
+                } catch (IOException e) {
+                    fail(item, e);
+                }
+            }
+            toDetect.put(END);
+        }
+
+        private void detect() throws InterruptedException {
+            for (Item item = toDetect.take(); item != END; item = toDetect.take()) {
+                try {
+                    String contentType = contentTypeDetector.detect(item.spool, item.fileName, item.declaredType);
+                    if (item.expandable && contentType.startsWith(ZIP)) {
+                        expand(item);
+                    } else {
+                        admit(item, contentType);
+                    }
+                } catch (IOException e) {
+                    fail(item, e);
+                }
+            }
+            for (int i = 0; i < workers; i++) {
+                toExtract.put(END);
+            }
+        }
+
+        /**
+         * Spools each archive entry as an item of its own. Entry names are only reported,
+         * never used as paths, and the entry count and expanded size are capped.
+         */
+        private void expand(Item archive) throws IOException, InterruptedException {
+            long expanded = 0;
+            int entries = 0;
+            try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive.spool))) {
+                for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                    if (entry.isDirectory()) {
+                        continue;
+                    }
+                    if (++entries > maxArchiveEntries) {
+                        throw new IOException("Archive has more than " + maxArchiveEntries + " entries");
+                    }
+                    Item item = new Item(nextIndex.getAndIncrement(), archive.fileName + "!/" + entry.getName(), null, false);
+                    item.spool = newSpoolFile();
+                    item.size = copy(zip, item.spool, maxArchiveBytes - expanded);
+                    expanded += item.size;
+                    admit(item, contentTypeDetector.detect(item.spool, entry.getName(), null));
+                }
+            } finally {
+                delete(archive.spool);
+            }
+        }
+
+        private void admit(Item item, String contentType) throws IOException, InterruptedException {
+            item.contentType = contentType;
+            if (!fileProcessingService.supports(contentType)) {
+                finish(item, "UNSUPPORTED", null, "Unsupported file format: " + contentType);
+                return;
+            }
+            DistributionSummary.builder("neura.ingest.received")
+                    .baseUnit("bytes")
+                    .tag("content.type", contentType)
+                    .register(meterRegistry)
+                    .record(item.size);
+            item.fingerprint = FingerprintIndex.fingerprint(item.spool);
+            Optional<Long> existing = fingerprintIndex.lookup(owner, item.fingerprint, item.size)
+                    .filter(docId -> documentStore.get(docId).isPresent());
+            if (existing.isPresent()) {
+                deduplicated(item, existing.get());
+                return;
+            }
+            toExtract.put(item);
+        }
+
+        private void extract() throws InterruptedException {
+            for (Item item = toExtract.take(); item != END; item = toExtract.take()) {
+                try {
+                    Metadata metadata = new Metadata();
+                    item.text = fileProcessingService.extractText(item.spool, item.contentType, metadata);
+                    temporary.add(item.text);
+                    item.attributes = DocumentMetadata.attributes(metadata, item.size);
+                    toWrite.put(item);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    fail(item, e);
+                }
+            }
+            if (extractorsLeft.decrementAndGet() == 0) {
+                toWrite.put(END);
+            }
+        }
+
+        private void write() throws InterruptedException {
+            List<Item> batch = new ArrayList<>(writeBatch);
+            boolean done = false;
+            while (!done) {
+                batch.add(toWrite.take());
+                toWrite.drainTo(batch, writeBatch - 1);
+                // END is the last item ever queued, so it can only be at the tail
+                done = batch.get(batch.size() - 1) == END;
+                if (done) {
+                    batch.remove(batch.size() - 1);
+                }
+                if (!batch.isEmpty()) {
+                    writeAll(batch);
+                }
+                batch.clear();
+            }
+            toIndex.put(END);
+        }
+
+        private void writeAll(List<Item> batch) throws InterruptedException {
+            // Identical files in flight together are only caught here, after extraction
+            List<Item> fresh = new ArrayList<>(batch.size());
+            Map<String, Item> first = new HashMap<>();
+            List<Item> repeats = new ArrayList<>();
+            for (Item item : batch) {
+                Optional<Long> existing = fingerprintIndex.lookup(owner, item.fingerprint, item.size)
+                        .filter(docId -> documentStore.get(docId).isPresent());
+                if (existing.isPresent()) {
+                    deduplicated(item, existing.get());
+                    continue;
+                }
+                Item original = first.putIfAbsent(item.fingerprint + "/" + item.size, item);
+                if (original == null) {
+                    fresh.add(item);
+                } else {
+                    if (original.repeats.isEmpty()) {
+                        original.repeats = new ArrayList<>();
+                    }
+                    original.repeats.add(item);
+                    repeats.add(item);
+                }
+            }
+            if (fresh.isEmpty()) {
+                return;
+            }
+
+            List<StoredDocument> documents;
+            Timer.Sample write = Timer.start(meterRegistry);
+            try {
+                documents = documentStore.appendAll(fresh.stream()
+                        .map(item -> new NewDocument(owner, item.contentType, item.attributes, item.text))
+                        .toList());
+            } catch (IOException e) {
+                fresh.forEach(item -> fail(item, e));
+                repeats.forEach(item -> fail(item, e));
+                return;
+            }
+            write.stop(meterRegistry.timer("neura.ingest.batch.write"));
+            DistributionSummary.builder("neura.ingest.batch.write.size")
+                    .register(meterRegistry)
+                    .record(documents.size());
+
+            for (int i = 0; i < fresh.size(); i++) {
+                Item item = fresh.get(i);
+                item.document = documents.get(i);
+                try {
+                    fingerprintIndex.record(owner, item.fingerprint, item.document.id());
+                    documentStore.keepOriginal(item.document.id(), item.spool);
+                } catch (IOException e) {
+                    log.warn("Could not record fingerprint or original of document {}", item.document.id(), e);
+                }
+                toIndex.put(item);
+            }
+        }
+
+        private void index() throws InterruptedException {
+            for (Item item = toIndex.take(); item != END; item = toIndex.take()) {
+                Timer.Sample index = Timer.start(meterRegistry);
+                indexingPipeline.index(item.document);
+                index.stop(meterRegistry.timer("neura.ingest.stage", "stage", "index", "content.type", item.contentType));
+                finish(item, "STORED", item.document.id(), null);
+                for (Item repeat : item.repeats) {
+                    deduplicated(repeat, item.document.id());
+                }
+            }
+            results.put(END);
+        }
+
+        /**
+         * Dedup only matches the uploader's own documents, so they can already read {@code documentId}.
+         */
+        private void deduplicated(Item item, long documentId) {
+            finish(item, "DEDUPLICATED", documentId, null);
+        }
+
+        private void fail(Item item, Exception e) {
+            log.debug("Batch item {} failed", item.fileName, e);
+            finish(item, "FAILED", null, e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+
+        private void finish(Item item, String status, Long documentId, String error) {
+            delete(item.spool);
+            delete(item.text);
+            results.add(new BatchItemResult(item.index, item.fileName, status, item.contentType, item.size,
+                    documentId, error));
+        }
+
+        private Path newSpoolFile() throws IOException {
+            Path dir = Paths.get(spoolDir);
+            Files.createDirectories(dir);
+            Path file = Files.createTempFile(dir, "batch-", ".upload");
+            temporary.add(file);
+            return file;
+        }
+
+        private void delete(Path file) {
+            if (file == null) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(file);
+                temporary.remove(file);
+            } catch (IOException e) {
+                log.warn("Could not delete spool file {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * Copies at most {@code limit} bytes of the current entry, failing if there are more.
+     */
+    private static long copy(InputStream in, Path target, long limit) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long copied = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                copied += n;
+                if (copied > limit) {
+                    throw new IOException("Archive expands to more than the allowed size");
+                }
+                out.write(buffer, 0, n);
+            }
+        }
+        return copied;
+    }
+
+    @FunctionalInterface
+    private interface StageBody {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.neura_search.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Where each document's chunks sit in an append-only sequence (passages, graph nodes), as
+ * runs of consecutive positions stored as {@code first, count} pairs. A document's chunks
+ * arrive in batches that may interleave with other documents' batches, so one document can
+ * own several runs. Run arrays are replaced, never modified, so readers need no lock.
+ */
+final class ChunkRanges {
+    private final Map<Long, int[]> runs = new ConcurrentHashMap<>();
+
+    /**
+     * Records that {@code docId} owns positions {@code first} to {@code first + count - 1}.
+     */
+    void add(long docId, int first, int count) {
+        if (count == 0) {
+            return;
+        }
+        runs.compute(docId, (id, existing) -> {
+            if (existing == null) {
+                return new int[]{first, count};
+            }
+            int last = existing.length - 2;
+            if (existing[last] + existing[last + 1] == first) {
+                int[] extended = existing.clone();
+                extended[last + 1] += count;
+                return extended;
+            }
+            int[] grown = Arrays.copyOf(existing, existing.length + 2);
+            grown[existing.length] = first;
+            grown[existing.length + 1] = count;
+            return grown;
+        });
+    }
+
+    /**
+     * The runs of {@code docId}, or null if it owns none.
+     */
+    int[] get(long docId) {
+        return runs.get(docId);
+    }
+
+    /**
+     * Forgets {@code docId} and returns its runs, or null if it owned none.
+     */
+    int[] remove(long docId) {
+        return runs.remove(docId);
+    }
+
+    void clear() {
+        runs.clear();
+    }
+}
@@ -0,0 +1,505 @@
+package com.example.neura_search.service;
+
+import com.example.neura_search.extraction.ContentTypeDetector;
+import com.example.neura_search.security.DocumentAccessIndex;
+import com.example.neura_search.store.DocumentStore;
+import com.example.neura_search.store.FingerprintIndex;
+import com.example.neura_search.store.StoredDocument;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Server-side bulk ingestion: walks {@code app.crawler.root}, then keeps watching it for
+ * new, changed and deleted files. A file is ingested only once its size and mtime have
+ * stayed the same for {@code app.crawler.settle-time}, so a file that is still being
+ * copied is not parsed half-written, and each path has at most one check or ingest
+ * pending at a time. File I/O and hashing run on virtual threads; the CPU-heavy
+ * extraction is capped at {@code app.crawler.parse-parallelism} concurrent parses.
+ * <p>
+ * Every ingested file is appended to a checkpoint log (path, size, mtime, doc id), so a
+ * restart only re-lists the tree and skips files whose size and mtime are unchanged.
+ * When a file changes, its new version replaces the document recorded for the path;
+ * when it is deleted, so is the document, unless another path still maps to it.
+ * Paths in the log have {@code %}, tab, CR and LF percent-encoded.
+ */
+@Component
+@ConditionalOnProperty(name = "app.crawler.enabled", havingValue = "true")
+public class DirectoryCrawler {
+    private static final Logger log = LoggerFactory.getLogger(DirectoryCrawler.class);
+    private static final String REMOVED = "-";
+
+    private final FileProcessingService fileProcessingService;
+    private final FingerprintIndex fingerprintIndex;
+    private final DocumentStore documentStore;
+    private final ContentTypeDetector contentTypeDetector;
+    private final IndexingPipeline indexingPipeline;
+    private final DocumentAccessIndex documentAccess;
+
+    @Value("${app.crawler.root}")
+    private String rootDir;
+
+    @Value("${app.crawler.owner:system}")
+    private String owner;
+
+    @Value("${app.crawler.parse-parallelism:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int parseParallelism;
+
+    @Value("${app.crawler.watch:true}")
+    private boolean watch;
+
+    @Value("${app.crawler.settle-time:PT2S}")
+    private Duration settleTime;
+
+    @Value("${app.crawler.checkpoint-file:data/crawler/checkpoint.log}")
+    private String checkpointFile;
+
+    // Guarded by this, together with the checkpoint writer
+    private final Map<Path, Entry> checkpoint = new HashMap<>();
+    private final Map<Long, Integer> references = new HashMap<>();
+    // Paths with a settle check or an ingest outstanding
+    private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong ingested = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private ExecutorService ioExecutor;
+    private ScheduledExecutorService settler;
+    private Semaphore parsePermits;
+    private Semaphore inFlight;
+    private BufferedWriter checkpointWriter;
+    private WatchService watchService;
+    private Thread crawlerThread;
+
+    /**
+     * The file version that was ingested for a path and the document it became; 0 when the
+     * format is not supported.
+     */
+    private record Entry(String version, long docId) {
+    }
+
+    public DirectoryCrawler(FileProcessingService fileProcessingService, FingerprintIndex fingerprintIndex,
+                            DocumentStore documentStore, ContentTypeDetector contentTypeDetector,
+                            IndexingPipeline indexingPipeline, DocumentAccessIndex documentAccess) {
+        this.fileProcessingService = fileProcessingService;
+        this.fingerprintIndex = fingerprintIndex;
+        this.documentStore = documentStore;
+        this.contentTypeDetector = contentTypeDetector;
+        this.indexingPipeline = indexingPipeline;
+        this.documentAccess = documentAccess;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        Path root = Paths.get(rootDir).toAbsolutePath().normalize();
+        if (!Files.isDirectory(root)) {
+            log.warn("Crawler root {} is not a directory, bulk ingestion disabled", root);
+            return;
+        }
+        loadCheckpoint();
+        ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        settler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("crawler-settle").daemon().factory());
+        parsePermits = new Semaphore(parseParallelism);
+        // Bounds queued virtual threads (and their open files) while the walk races ahead
+        inFlight = new Semaphore(parseParallelism * 8);
+
+        crawlerThread = Thread.ofPlatform().name("directory-crawler").daemon().start(() -> run(root));
+    }
+
+    private void run(Path root) {
+        try {
+            if (watch) {
+                // Register before walking so files created during the walk are not missed
+                watchService = FileSystems.getDefault().newWatchService();
+                registerTree(root);
+            }
+            long started = System.nanoTime();
+            rescan(root);
+            log.info("Initial crawl of {} scheduled in {} ms", root, (System.nanoTime() - started) / 1_000_000);
+            if (watch) {
+                watchLoop(root);
+            }
+        } catch (ClosedWatchServiceException e) {
+            // shutting down
+        } catch (IOException e) {
+            log.error("Directory crawl of {} failed", root, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Schedules every file under {@code root}, plus every recorded file that is no longer
+     * there, so changes the crawler did not see (it was down, or events were dropped) are
+     * picked up. Unchanged files are skipped by {@link #schedule}.
+     */
+    private void rescan(Path root) throws IOException {
+        Set<Path> seen = new HashSet<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                seen.add(file);
+                schedule(file);
+            });
+        }
+        List<Path> vanished;
+        synchronized (this) {
+            vanished = checkpoint.keySet().stream()
+                    .filter(path -> path.startsWith(root) && !seen.contains(path))
+                    .toList();
+        }
+        vanished.forEach(this::schedule);
+    }
+
+    private void watchLoop(Path root) throws InterruptedException, IOException {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key = watchService.take();
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // Events were dropped; directories created meanwhile are not watched either
+                    log.warn("Watch events for {} overflowed, rescanning {}", dir, root);
+                    registerTree(root);
+                    rescan(root);
+                    continue;
+                }
+                Path path = dir.resolve((Path) event.context());
+                if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    removeTree(path);
+                } else if (Files.isDirectory(path)) {
+                    registerTree(path);
+                    try (Stream<Path> files = Files.walk(path)) {
+                        files.filter(Files::isRegularFile).forEach(this::schedule);
+                    }
+                } else if (Files.isRegularFile(path)) {
+                    schedule(path);
+                }
+            }
+            key.reset();
+        }
+    }
+
+    private void registerTree(Path start) throws IOException {
+        try (Stream<Path> dirs = Files.walk(start)) {
+            for (Path dir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    /**
+     * A deleted directory only reports itself, so every recorded path below it goes too.
+     */
+    private void removeTree(Path path) {
+        List<Path> recorded;
+        synchronized (this) {
+            recorded = checkpoint.keySet().stream().filter(file -> file.startsWith(path)).toList();
+        }
+        recorded.forEach(this::schedule);
+    }
+
+    /**
+     * Starts watching {@code file} until it settles, unless it is unchanged since it was
+     * ingested or is already being watched.
+     */
+    private void schedule(Path file) {
+        String version = versionOrNull(file);
+        if (version != null && version.equals(recordedVersion(file))) {
+            skipped.incrementAndGet();
+            return;
+        }
+        if (pending.add(file)) {
+            settle(file, version);
+        }
+    }
+
+    private void settle(Path file, String observed) {
+        settler.schedule(() -> check(file, observed), settleTime.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs on the settle thread: ingests {@code file} once it looks as it did a settle time
+     * ago, otherwise checks again later.
+     */
+    private void check(Path file, String observed) {
+        String version = versionOrNull(file);
+        if (version != null && !version.equals(observed)) {
+            settle(file, version);
+            return;
+        }
+        if (version != null && version.equals(recordedVersion(file))) {
+            pending.remove(file);
+            skipped.incrementAndGet();
+            return;
+        }
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            pending.remove(file);
+            Thread.currentThread().interrupt();
+            return;
+        }
+        ioExecutor.execute(() -> {
+            try {
+                if (version == null) {
+                    remove(file);
+                } else {
+                    ingest(file, version);
+                }
+            } finally {
+                inFlight.release();
+                pending.remove(file);
+            }
+            // Changed again while it was being ingested
+            if (!Objects.equals(versionOrNull(file), version)) {
+                schedule(file);
+            }
+        });
+    }
+
+    private void ingest(Path file, String version) {
+        try {
+            String contentType = contentTypeDetector.detect(file);
+            if (!fileProcessingService.supports(contentType)) {
+                markDone(file, version, 0);
+                return;
+            }
+            long size = Files.size(file);
+            String fingerprint = FingerprintIndex.fingerprint(file);
+            Optional<Long> existing = fingerprintIndex.lookup(owner, fingerprint, size)
+                    .filter(docId -> documentStore.get(docId).isPresent());
+            if (existing.isPresent()) {
+                markDone(file, version, existing.get());
+                return;
+            }
+
+            StoredDocument document;
+            parsePermits.acquire();
+            try {
+                document = fileProcessingService.processFile(file, contentType, owner);
+            } finally {
+                parsePermits.release();
+            }
+            fingerprintIndex.record(owner, fingerprint, document.id());
+            markDone(file, version, document.id());
+            ingested.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.warn("Could not ingest {}", file, e);
+        }
+    }
+
+    private void remove(Path file) {
+        try {
+            long released;
+            synchronized (this) {
+                Entry entry = checkpoint.remove(file);
+                if (entry == null) {
+                    return;
+                }
+                released = release(entry.docId());
+                writeCheckpoint(encode(file) + "\t" + REMOVED);
+            }
+            if (released != 0) {
+                indexingPipeline.delete(released);
+            }
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            log.warn("Could not remove the document of deleted file {}", file, e);
+        }
+    }
+
+    private static String version(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return attributes.size() + "\t" + attributes.lastModifiedTime().toMillis();
+    }
+
+    /**
+     * The file's current version, or null when it is gone or not a regular file.
+     */
+    private static String versionOrNull(Path file) {
+        try {
+            return Files.isRegularFile(file) ? version(file) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private synchronized String recordedVersion(Path file) {
+        Entry entry = checkpoint.get(file);
+        return entry == null ? null : entry.version();
+    }
+
+    private void loadCheckpoint() throws IOException {
+        Path path = Paths.get(checkpointFile);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        if (Files.exists(path)) {
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            synchronized (this) {
+                for (String line : lines) {
+                    String[] parts = line.split("\t");
+                    Path file = Paths.get(decode(parts[0]));
+                    if (parts.length == 4) {
+                        put(file, new Entry(parts[1] + "\t" + parts[2], Long.parseLong(parts[3])));
+                    } else if (parts.length == 2 && parts[1].equals(REMOVED)) {
+                        Entry entry = checkpoint.remove(file);
+                        if (entry != null) {
+                            release(entry.docId());
+                        }
+                    }
+                }
+            }
+        }
+        checkpointWriter = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.info("Loaded crawler checkpoint with {} files", checkpoint.size());
+    }
+
+    /**
+     * Records {@code docId} as the document of {@code file}. A document the path held before
+     * is replaced: its grants carry over and it is deleted, unless another path maps to it.
+     */
+    private void markDone(Path file, String version, long docId) throws IOException {
+        long released;
+        synchronized (this) {
+            Entry previous = put(file, new Entry(version, docId));
+            released = previous == null ? 0 : release(previous.docId());
+            writeCheckpoint(encode(file) + "\t" + version + "\t" + docId);
+        }
+        if (released != 0) {
+            if (docId != 0) {
+                documentAccess.copyGrants(released, docId);
+            }
+            indexingPipeline.delete(released);
+        }
+    }
+
+    private Entry put(Path file, Entry entry) {
+        if (entry.docId() != 0) {
+            references.merge(entry.docId(), 1, Integer::sum);
+        }
+        return checkpoint.put(file, entry);
+    }
+
+    /**
+     * Drops one path's reference to {@code docId} and returns it if that was the last one,
+     * otherwise 0.
+     */
+    private long release(long docId) {
+        if (docId == 0) {
+            return 0;
+        }
+        Integer count = references.merge(docId, -1, Integer::sum);
+        if (count <= 0) {
+            references.remove(docId);
+            return docId;
+        }
+        return 0;
+    }
+
+    private void writeCheckpoint(String line) throws IOException {
+        checkpointWriter.write(line);
+        checkpointWriter.newLine();
+        checkpointWriter.flush();
+    }
+
+    private static String encode(Path file) {
+        String path = file.toString();
+        StringBuilder encoded = new StringBuilder(path.length());
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            switch (c) {
+                case '%' -> encoded.append("%25");
+                case '\t' -> encoded.append("%09");
+                case '\n' -> encoded.append("%0A");
+                case '\r' -> encoded.append("%0D");
+                default -> encoded.append(c);
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static String decode(String encoded) {
+        StringBuilder path = new StringBuilder(encoded.length());
+        for (int i = 0; i < encoded.length(); i++) {
+            char c = encoded.charAt(i);
+            if (c == '%' && i + 2 < encoded.length()) {
+                path.append((char) Integer.parseInt(encoded.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                path.append(c);
+            }
+        }
+        return path.toString();
+    }
+
+    public long getIngested() {
+        return ingested.get();
+    }
+
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (crawlerThread != null) {
+            crawlerThread.interrupt();
+        }
+        if (settler != null) {
+            settler.shutdownNow();
+        }
+        if (ioExecutor != null) {
+            ioExecutor.shutdownNow();
+        }
+        if (checkpointWriter != null) {
+            synchronized (this) {
+                checkpointWriter.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.neura_search.service;
+
+import com.example.neura_search.chunk.TextChunk;
+import com.example.neura_search.dto.DocumentQuery;
+import com.example.neura_search.dto.DocumentQueryResponse;
+import com.example.neura_search.dto.DocumentSummary;
+import com.example.neura_search.extraction.DocumentMetadata;
+import com.example.neura_search.index.DocumentIndexer;
+import com.example.neura_search.index.MetadataIndex;
+import com.example.neura_search.store.DocumentStore;
+import com.example.neura_search.store.StoredDocument;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Filtered and faceted document listings answered from an in-memory {@link MetadataIndex}
+ * built from the properties in the store's record headers, so no query goes to MySQL.
+ * The index is rebuilt by the indexing pipeline's catch-up on startup.
+ */
+@Service
+public class DocumentQueryService implements DocumentIndexer {
+    private static final String TYPE = "type";
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_FACET_VALUES = 20;
+
+    private final DocumentStore documentStore;
+    private final MetadataIndex metadataIndex = new MetadataIndex(
+            List.of(TYPE, DocumentMetadata.AUTHOR, DocumentMetadata.LANGUAGE),
+            List.of(DocumentMetadata.CREATED, DocumentMetadata.SIZE, DocumentMetadata.PAGES));
+
+    public DocumentQueryService(DocumentStore documentStore) {
+        this.documentStore = documentStore;
+    }
+
+    @Override
+    public boolean needs(StoredDocument document) {
+        return !metadataIndex.contains(document.id());
+    }
+
+    @Override
+    public void stored(StoredDocument document) throws IOException {
+        Map<String, String> attributes = documentStore.attributes(document.id());
+        Map<String, String> values = new HashMap<>();
+        values.put(TYPE, document.contentType());
+        values.put(DocumentMetadata.AUTHOR, attributes.get(DocumentMetadata.AUTHOR));
+        values.put(DocumentMetadata.LANGUAGE, attributes.get(DocumentMetadata.LANGUAGE));
+
+        Map<String, Long> numbers = new HashMap<>();
+        parseInstant(attributes.get(DocumentMetadata.CREATED))
+                .ifPresent(created -> numbers.put(DocumentMetadata.CREATED, created.toEpochMilli()));
+        parseLong(attributes.get(DocumentMetadata.SIZE)).ifPresent(size -> numbers.put(DocumentMetadata.SIZE, size));
+        parseLong(attributes.get(DocumentMetadata.PAGES)).ifPresent(pages -> numbers.put(DocumentMetadata.PAGES, pages));
+        metadataIndex.put(document.id(), values, numbers);
+    }
+
+    @Override
+    public void index(StoredDocument document, List<TextChunk> chunks) {
+        // Everything this index needs is in the record header, see stored()
+    }
+
+    @Override
+    public void removed(long docId) {
+        metadataIndex.remove(docId);
+    }
+
+    /**
+     * Runs {@code request} over the documents in {@code readable}. Throws
+     * {@link IllegalArgumentException} for malformed filters.
+     */
+    public DocumentQueryResponse query(DocumentQuery request, RoaringBitmap readable) throws IOException {
+        MetadataIndex.Query query = new MetadataIndex.Query()
+                .limit(Math.max(1, Math.min(request.getLimit(), MAX_LIMIT)))
+                .facetLimit(MAX_FACET_VALUES);
+        query.within(readable);
+        if (request.getType() != null && !request.getType().isEmpty()) {
+            query.equalTo(TYPE, request.getType());
+        }
+        if (request.getAuthor() != null && !request.getAuthor().isEmpty()) {
+            query.equalTo(DocumentMetadata.AUTHOR, request.getAuthor());
+        }
+        if (request.getLanguage() != null && !request.getLanguage().isEmpty()) {
+            query.equalTo(DocumentMetadata.LANGUAGE, request.getLanguage());
+        }
+        if (request.getCreatedFrom() != null || request.getCreatedTo() != null) {
+            long from = request.getCreatedFrom() == null ? Long.MIN_VALUE
+                    : parseBound(request.getCreatedFrom(), false).toEpochMilli();
+            long to = request.getCreatedTo() == null ? Long.MAX_VALUE
+                    : parseBound(request.getCreatedTo(), true).toEpochMilli();
+            query.between(DocumentMetadata.CREATED, from, to);
+        }
+        if (request.getMinSize() != null || request.getMaxSize() != null) {
+            query.between(DocumentMetadata.SIZE, orMin(request.getMinSize()), orMax(request.getMaxSize()));
+        }
+        if (request.getMinPages() != null || request.getMaxPages() != null) {
+            query.between(DocumentMetadata.PAGES, orMin(request.getMinPages()), orMax(request.getMaxPages()));
+        }
+        if (request.getAfter() != null) {
+            query.after(request.getAfter());
+        }
+        if (request.getFacets() != null) {
+            for (String facet : request.getFacets().split(",")) {
+                String column = facet.trim();
+                if (column.equals(TYPE) || column.equals(DocumentMetadata.AUTHOR)
+                        || column.equals(DocumentMetadata.LANGUAGE)) {
+                    query.facet(column);
+                } else if (!column.isEmpty()) {
+                    throw new IllegalArgumentException("Cannot facet on " + column);
+                }
+            }
+        }
+
+        MetadataIndex.Result result = metadataIndex.query(query);
+        List<DocumentSummary> documents = new ArrayList<>(result.ids().size());
+        for (long id : result.ids()) {
+            Optional<StoredDocument> document = documentStore.get(id);
+            if (document.isPresent()) {
+                documents.add(summarize(document.get()));
+            }
+        }
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        result.facets().forEach((column, counts) -> {
+            Map<String, Integer> values = new LinkedHashMap<>();
+            counts.forEach(count -> values.put(count.value(), count.count()));
+            facets.put(column, values);
+        });
+        Long next = result.more() ? result.ids().get(result.ids().size() - 1) : null;
+        return new DocumentQueryResponse(result.total(), documents, facets, next);
+    }
+
+    private DocumentSummary summarize(StoredDocument document) throws IOException {
+        Map<String, String> attributes = documentStore.attributes(document.id());
+        DocumentSummary summary = new DocumentSummary(document.id(), document.owner(), document.contentType());
+        summary.setTitle(attributes.get(DocumentMetadata.TITLE));
+        summary.setAuthor(attributes.get(DocumentMetadata.AUTHOR));
+        summary.setCreated(attributes.get(DocumentMetadata.CREATED));
+        summary.setLanguage(attributes.get(DocumentMetadata.LANGUAGE));
+        parseLong(attributes.get(DocumentMetadata.PAGES)).ifPresent(pages -> summary.setPages(pages.intValue()));
+        parseLong(attributes.get(DocumentMetadata.SIZE)).ifPresent(summary::setSize);
+        return summary;
+    }
+
+    /**
+     * A plain date covers the whole UTC day, so as an upper bound it means its last millisecond.
+     */
+    private static Instant parseBound(String value, boolean upper) {
+        try {
+            if (value.length() == 10) {
+                LocalDate date = LocalDate.parse(value);
+                return upper
+                        ? date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusMillis(1)
+                        : date.atStartOfDay(ZoneOffset.UTC).toInstant();
+            }
+            return Instant.parse(value);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+    }
+
+    private static Optional<Instant> parseInstant(String value) {
+        try {
+            return value == null ? Optional.empty() : Optional.of(Instant.parse(value));
+        } catch (DateTimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Long> parseLong(String value) {
+        try {
+            return value == null ? Optional.empty() : Optional.of(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static long orMin(Long value) {
+        return value == null ? Long.MIN_VALUE : value;
+    }
+
+    private static long orMax(Long value) {
+        return value == null ? Long.MAX_VALUE : value;
+    }
+}
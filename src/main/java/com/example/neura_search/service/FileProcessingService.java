@@ -1,62 +1,165 @@
 package com.example.neura_search.service;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.tika.Tika;
-import org.apache.tika.exception.TikaException;
+import com.example.neura_search.extraction.DocumentExtractor;
+import com.example.neura_search.extraction.DocumentMetadata;
+import com.example.neura_search.extraction.ExtractorRegistry;
+import com.example.neura_search.extraction.ForkedExtractionPool;
+import com.example.neura_search.store.DocumentStore;
+import com.example.neura_search.store.StoredDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.tika.metadata.Metadata;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 
 @Service
 public class FileProcessingService {
-    private final Tika tika = new Tika();
-
-    public String processFile(MultipartFile file) throws Exception {
-        String fileType = file.getContentType();
-        String extractedContent;
-
-        if (fileType != null && fileType.contains("pdf")) {
-            extractedContent = extractTextFromPDF(file);
-        } else if (fileType != null && fileType.contains("excel")) {
-            extractedContent = extractTextFromExcel(file);
-        } else {
-            return "Unsupported file format. Only PDF and Excel files are allowed.";
-        }
+    private static final int SINK_BUFFER_SIZE = 64 * 1024;
+
+    private final ExtractorRegistry extractors;
+    private final ForkedExtractionPool sandbox;
+    private final DocumentStore documentStore;
+    private final IndexingPipeline indexingPipeline;
+    private final ExecutorService parseExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.ingest.spool-dir:${java.io.tmpdir}/neura-search/spool}")
+    private String spoolDir;
+
+    public FileProcessingService(ExtractorRegistry extractors, ForkedExtractionPool sandbox,
+                                 DocumentStore documentStore, IndexingPipeline indexingPipeline,
+                                 @Qualifier("parseExecutor") ExecutorService parseExecutor,
+                                 MeterRegistry meterRegistry) {
+        this.extractors = extractors;
+        this.sandbox = sandbox;
+        this.documentStore = documentStore;
+        this.indexingPipeline = indexingPipeline;
+        this.parseExecutor = parseExecutor;
+        this.meterRegistry = meterRegistry;
+    }
 
-        saveToFile(extractedContent);
-        return "File processed successfully! Extracted content saved.";
+    public boolean supports(String fileType) {
+        return extractors.supports(fileType);
     }
 
-    private String extractTextFromPDF(MultipartFile file) throws IOException, TikaException {
-        return tika.parseToString(file.getInputStream());
+    /**
+     * Extracts the text of {@code source} and appends it to the document store together with
+     * the document properties the parser found. Parsers open the file themselves, so it is
+     * read in place rather than copied through a stream. {@code fileType} should be the
+     * detected type, not the one the client declared.
+     */
+    public StoredDocument processFile(Path source, String fileType, String owner) throws Exception {
+        Metadata metadata = new Metadata();
+        Path text = extractText(source, fileType, metadata);
+        try {
+            Timer.Sample write = Timer.start(meterRegistry);
+            StoredDocument document = documentStore.append(owner, fileType,
+                    DocumentMetadata.attributes(metadata, Files.size(source)), text);
+            write.stop(stageTimer("write", fileType));
+
+            Timer.Sample index = Timer.start(meterRegistry);
+            indexingPipeline.index(document);
+            index.stop(stageTimer("index", fileType));
+            return document;
+        } finally {
+            Files.deleteIfExists(text);
+        }
     }
 
-    private String extractTextFromExcel(MultipartFile file) throws IOException {
-        StringBuilder extractedText = new StringBuilder();
-        try (InputStream is = file.getInputStream();
-             Workbook workbook = new XSSFWorkbook(is)) {
-
-            for (Sheet sheet : workbook) {
-                for (Row row : sheet) {
-                    for (Cell cell : row) {
-                        extractedText.append(cell.toString()).append("\t");
-                    }
-                    extractedText.append("\n");
+    /**
+     * Extracts the text of {@code source} into a new spool file, which the caller appends to
+     * the store and then deletes. Document properties are added to {@code metadata}. With the
+     * sandbox enabled the parse runs in a worker JVM under its time, memory and output limits;
+     * otherwise it runs in-process on the parse pool.
+     */
+    public Path extractText(Path source, String fileType, Metadata metadata) throws Exception {
+        DocumentExtractor extractor = extractors.find(fileType)
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported file format: " + fileType));
+
+        // Text is pushed to a private spool file as it is parsed, so heap usage per upload
+        // is bounded by the writer buffer; the store then copies it in with one locked append.
+        Path dir = Paths.get(spoolDir);
+        Files.createDirectories(dir);
+        Path text = Files.createTempFile(dir, "extract-", ".txt");
+        try {
+            Timer.Sample parse = Timer.start(meterRegistry);
+            metadata.set(Metadata.CONTENT_TYPE, fileType);
+            long characters;
+            if (sandbox.isEnabled()) {
+                characters = sandbox.extract(source, fileType, text, metadata);
+            } else {
+                CountingWriter sink = new CountingWriter(new BufferedWriter(
+                        new OutputStreamWriter(Files.newOutputStream(text), StandardCharsets.UTF_8), SINK_BUFFER_SIZE));
+                try (sink) {
+                    awaitParse(parseExecutor.submit(() -> {
+                        extractor.extract(source, sink, metadata);
+                        return null;
+                    }));
                 }
+                characters = sink.count;
             }
+            parse.stop(stageTimer("parse", fileType));
+            meterRegistry.counter("neura.ingest.characters", "content.type", fileType).increment(characters);
+            meterRegistry.counter("neura.ingest.text.bytes", "content.type", fileType).increment(Files.size(text));
+            return text;
+        } catch (Exception e) {
+            Files.deleteIfExists(text);
+            throw e;
         }
-        return extractedText.toString();
     }
 
-    private void saveToFile(String content) throws IOException {
-        String OUTPUT_FILE = "extracted_data.txt";
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(OUTPUT_FILE, true))) {
-            writer.write(content);
-            writer.newLine();
+    private static void awaitParse(Future<?> parse) throws Exception {
+        try {
+            parse.get();
+        } catch (InterruptedException e) {
+            parse.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
         }
     }
 
+    private Timer stageTimer(String stage, String fileType) {
+        return meterRegistry.timer("neura.ingest.stage", "stage", stage, "content.type", fileType);
+    }
 
+    private static final class CountingWriter extends FilterWriter {
+        private long count;
+
+        CountingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            super.write(c);
+            count++;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            super.write(cbuf, off, len);
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            super.write(str, off, len);
+            count += len;
+        }
+    }
 }
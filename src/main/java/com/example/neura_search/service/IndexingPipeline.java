@@ -0,0 +1,118 @@
+package com.example.neura_search.service;
+
+import com.example.neura_search.chunk.DocumentChunker;
+import com.example.neura_search.chunk.TextChunk;
+import com.example.neura_search.extraction.ExtractorRegistry;
+import com.example.neura_search.index.DocumentIndexer;
+import com.example.neura_search.store.DocumentStore;
+import com.example.neura_search.store.StoredDocument;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Chunks stored documents straight off the mapped store and feeds the chunks to
+ * every {@link DocumentIndexer} in batches.
+ */
+@Service
+public class IndexingPipeline {
+    private static final Logger log = LoggerFactory.getLogger(IndexingPipeline.class);
+
+    private final DocumentStore documentStore;
+    private final DocumentChunker chunker;
+    private final ExtractorRegistry extractors;
+    private final List<DocumentIndexer> indexers;
+
+    @Value("${app.chunk.batch-size:64}")
+    private int batchSize;
+
+    public IndexingPipeline(DocumentStore documentStore, DocumentChunker chunker,
+                            ExtractorRegistry extractors, List<DocumentIndexer> indexers) {
+        this.documentStore = documentStore;
+        this.chunker = chunker;
+        this.extractors = extractors;
+        this.indexers = indexers;
+    }
+
+    /**
+     * Brings every indexer up to date with the store; in-memory indexes start empty,
+     * persistent ones only receive documents they have not seen.
+     */
+    @PostConstruct
+    public void catchUp() {
+        long started = System.nanoTime();
+        int count = 0;
+        List<StoredDocument> documents = documentStore.documents().stream()
+                .sorted(Comparator.comparingLong(StoredDocument::id))
+                .toList();
+        for (StoredDocument document : documents) {
+            List<DocumentIndexer> targets = indexers.stream().filter(indexer -> indexer.needs(document)).toList();
+            if (!targets.isEmpty()) {
+                feed(document, targets);
+                count++;
+            }
+        }
+        log.info("Indexed {} stored documents in {} ms", count, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public void index(StoredDocument document) {
+        feed(document, indexers);
+    }
+
+    /**
+     * Deletes document {@code id} from the store and tells every indexer; returns false
+     * when there was no such document.
+     */
+    public boolean delete(long id) throws IOException {
+        if (!documentStore.delete(id)) {
+            return false;
+        }
+        for (DocumentIndexer indexer : indexers) {
+            try {
+                indexer.removed(id);
+            } catch (Exception e) {
+                log.warn("Indexer {} failed to remove document {}", indexer.getClass().getSimpleName(), id, e);
+            }
+        }
+        return true;
+    }
+
+    private void feed(StoredDocument document, List<DocumentIndexer> targets) {
+        for (DocumentIndexer indexer : targets) {
+            try {
+                indexer.stored(document);
+            } catch (Exception e) {
+                log.warn("Indexer {} failed for document {}", indexer.getClass().getSimpleName(), document.id(), e);
+            }
+        }
+        DocumentChunker.Mode mode = extractors.isTabular(document.contentType())
+                ? DocumentChunker.Mode.ROWS
+                : DocumentChunker.Mode.PROSE;
+        try (Reader reader = new InputStreamReader(documentStore.openBody(document.id()), StandardCharsets.UTF_8)) {
+            chunker.chunk(document.id(), reader, mode, batchSize, batch -> deliver(document, batch, targets));
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not chunk document {}", document.id(), e);
+        }
+    }
+
+    private void deliver(StoredDocument document, List<TextChunk> batch, List<DocumentIndexer> targets) {
+        // The document is already durable; a failed indexer is repaired by the catch-up on restart
+        for (DocumentIndexer indexer : targets) {
+            try {
+                indexer.index(document, batch);
+            } catch (Exception e) {
+                log.warn("Indexer {} failed for document {}", indexer.getClass().getSimpleName(), document.id(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.neura_search.service;
+
+import com.example.neura_search.extraction.ContentTypeDetector;
+import com.example.neura_search.model.IngestionJob;
+import com.example.neura_search.security.DocumentAccessIndex;
+import com.example.neura_search.store.DocumentStore;
+import com.example.neura_search.store.FingerprintIndex;
+import com.example.neura_search.store.StoredDocument;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Service
+public class IngestionJobService {
+    private static final Logger log = LoggerFactory.getLogger(IngestionJobService.class);
+
+    private final FileProcessingService fileProcessingService;
+    private final ThreadPoolExecutor ingestionExecutor;
+    private final FingerprintIndex fingerprintIndex;
+    private final DocumentStore documentStore;
+    private final ContentTypeDetector contentTypeDetector;
+    private final DocumentAccessIndex documentAccess;
+    private final IndexingPipeline indexingPipeline;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, IngestionJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.ingest.spool-dir:${java.io.tmpdir}/neura-search/spool}")
+    private String spoolDir;
+
+    @Value("${app.ingest.job-retention:PT1H}")
+    private Duration jobRetention;
+
+    public IngestionJobService(FileProcessingService fileProcessingService,
+                               @Qualifier("ingestionExecutor") ThreadPoolExecutor ingestionExecutor,
+                               FingerprintIndex fingerprintIndex, DocumentStore documentStore,
+                               ContentTypeDetector contentTypeDetector, DocumentAccessIndex documentAccess,
+                               IndexingPipeline indexingPipeline, MeterRegistry meterRegistry) {
+        this.fileProcessingService = fileProcessingService;
+        this.ingestionExecutor = ingestionExecutor;
+        this.fingerprintIndex = fingerprintIndex;
+        this.contentTypeDetector = contentTypeDetector;
+        this.documentAccess = documentAccess;
+        this.indexingPipeline = indexingPipeline;
+        this.meterRegistry = meterRegistry;
+        this.documentStore = documentStore;
+    }
+
+    /**
+     * Spools the upload to disk and queues it for extraction. The worker hashes the spooled
+     * file and completes the job as deduplicated if the content matches a document that is
+     * already stored, so the request thread never rereads the upload. Throws
+     * {@link RejectedExecutionException} when the ingestion queue is full and
+     * {@link IllegalArgumentException} when the detected format has no extractor.
+     */
+    public IngestionJob submit(MultipartFile file, String owner) throws IOException {
+        return submit(file, owner, null);
+    }
+
+    /**
+     * Like {@link #submit(MultipartFile, String)}, but the new document takes the place of
+     * document {@code replaces}: it keeps that document's owner and grants, and the old one
+     * is deleted once the new one is stored. Ids are never reused, so the replacement gets
+     * a new id.
+     */
+    public IngestionJob submit(MultipartFile file, String owner, Long replaces) throws IOException {
+        // Fail fast before writing anything to disk when the pool is saturated
+        if (ingestionExecutor.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("Ingestion queue is full");
+        }
+        if (replaces != null) {
+            replaced(replaces);
+        }
+
+        Timer.Sample receive = Timer.start(meterRegistry);
+        Path dir = Paths.get(spoolDir);
+        Files.createDirectories(dir);
+        String id = UUID.randomUUID().toString();
+        Path spoolFile = dir.resolve(id + ".upload");
+        // Parts above the multipart size threshold are already on disk in this directory, so
+        // transferTo(File) renames Tomcat's temp file instead of copying it (absolute paths only)
+        file.transferTo(spoolFile.toAbsolutePath().toFile());
+        // Route on the bytes, not on the type the client declared
+        String contentType = contentTypeDetector.detect(spoolFile, file.getOriginalFilename(), file.getContentType());
+        if (!fileProcessingService.supports(contentType)) {
+            Files.deleteIfExists(spoolFile);
+            throw new IllegalArgumentException("Unsupported file format: " + contentType);
+        }
+        receive.stop(meterRegistry.timer("neura.ingest.stage", "stage", "receive", "content.type", contentType));
+        DistributionSummary.builder("neura.ingest.received")
+                .baseUnit("bytes")
+                .tag("content.type", contentType)
+                .register(meterRegistry)
+                .record(file.getSize());
+
+        IngestionJob job = new IngestionJob(id, owner, file.getOriginalFilename(),
+                contentType, file.getSize(), spoolFile, replaces);
+        jobs.put(id, job);
+        try {
+            ingestionExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(id);
+            Files.deleteIfExists(spoolFile);
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<IngestionJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void run(IngestionJob job) {
+        job.markRunning();
+        // Also catches an identical upload that finished while this one was queued
+        Optional<Long> existing;
+        String documentOwner;
+        try {
+            job.setFingerprint(FingerprintIndex.fingerprint(job.getSpoolFile()));
+            documentOwner = documentOwner(job);
+            existing = fingerprintIndex.lookup(documentOwner, job.getFingerprint(), job.getSize())
+                    .filter(docId -> documentStore.get(docId).isPresent());
+            if (existing.isPresent()) {
+                completeDuplicate(job, existing.get());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ingestion job {} failed", job.getId(), e);
+            job.markFailed(e.getMessage());
+            deleteSpoolFile(job);
+            return;
+        }
+        if (existing.isPresent()) {
+            deleteSpoolFile(job);
+            return;
+        }
+        try {
+            Long replaces = job.getReplaces();
+            StoredDocument document = fileProcessingService.processFile(job.getSpoolFile(), job.getContentType(), documentOwner);
+            job.addBytesProcessed(job.getSize());
+            fingerprintIndex.record(documentOwner, job.getFingerprint(), document.id());
+            documentStore.keepOriginal(document.id(), job.getSpoolFile());
+            if (replaces == null) {
+                job.markCompleted(document.id(), "File processed successfully! Stored as document " + document.id() + ".");
+            } else {
+                replace(replaces, document.id());
+                job.markCompleted(document.id(), "File processed successfully! Stored as document " + document.id()
+                        + ", replacing document " + replaces + ".");
+            }
+        } catch (Exception e) {
+            log.warn("Ingestion job {} failed", job.getId(), e);
+            job.markFailed(e.getMessage());
+        } finally {
+            deleteSpoolFile(job);
+        }
+    }
+
+    /**
+     * Completes {@code job} with document {@code docId}, which already holds the uploaded bytes.
+     */
+    private void completeDuplicate(IngestionJob job, long docId) throws IOException {
+        Long replaces = job.getReplaces();
+        // Dedup only matches the document owner's own documents, so no grant is needed;
+        // replacing a document with its own content changes nothing
+        if (replaces != null && replaces != docId) {
+            replace(replaces, docId);
+        }
+        job.markDeduplicated(docId);
+    }
+
+    private void replace(long replaced, long replacement) throws IOException {
+        documentAccess.copyGrants(replaced, replacement);
+        indexingPipeline.delete(replaced);
+    }
+
+    /**
+     * Who will own the job's document: the uploader, or for a replacement the owner of the
+     * replaced document. Dedup looks only at that user's documents.
+     */
+    private String documentOwner(IngestionJob job) {
+        return job.getReplaces() == null ? job.getOwner() : replaced(job.getReplaces()).owner();
+    }
+
+    private StoredDocument replaced(long docId) {
+        return documentStore.get(docId)
+                .orElseThrow(() -> new NoSuchElementException("Document " + docId + " was deleted"));
+    }
+
+    private void deleteSpoolFile(IngestionJob job) {
+        try {
+            Files.deleteIfExists(job.getSpoolFile());
+        } catch (IOException e) {
+            log.warn("Could not delete spool file {}", job.getSpoolFile(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ingest.job-sweep-interval:60000}")
+    public void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(jobRetention);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
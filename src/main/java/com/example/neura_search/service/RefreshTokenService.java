@@ -0,0 +1,112 @@
+package com.example.neura_search.service;
+
+import com.example.neura_search.model.RefreshToken;
+import com.example.neura_search.model.User;
+import com.example.neura_search.repository.RefreshTokenRepository;
+import com.example.neura_search.security.JwtTokenProvider;
+import com.example.neura_search.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens. Every refresh consumes the presented token
+ * and returns a new one in the same family; presenting an already-consumed token is
+ * treated as theft and revokes the whole family.
+ */
+@Service
+public class RefreshTokenService {
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtTokenProvider tokenProvider;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${app.jwt.refresh-expiration:P14D}")
+    private Duration refreshExpiration;
+
+    public record IssuedTokens(String accessToken, String refreshToken, UserPrincipal principal) {
+    }
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, JwtTokenProvider tokenProvider) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenProvider = tokenProvider;
+    }
+
+    @Transactional
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Does not roll back on {@link BadCredentialsException}, so a family revoked on reuse
+     * stays revoked.
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public IssuedTokens rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        if (current.isRevoked()) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            throw new BadCredentialsException("Refresh token reuse detected");
+        }
+        if (current.getExpiresAt().isBefore(Instant.now())) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+        // Issued before the user's tokens were revoked
+        if (current.getTokenVersion() < current.getUser().getTokenVersion()) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            throw new BadCredentialsException("Refresh token revoked");
+        }
+        // Conditional update, so of two concurrent refreshes with the same token only one wins
+        if (refreshTokenRepository.consume(current.getId()) == 0) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            throw new BadCredentialsException("Refresh token reuse detected");
+        }
+
+        User user = current.getUser();
+        UserPrincipal principal = UserPrincipal.from(user);
+        String refreshToken = issue(user, current.getFamilyId());
+        return new IssuedTokens(tokenProvider.createToken(principal), refreshToken, principal);
+    }
+
+    @Transactional
+    public void revokeFamily(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.rebuild-interval:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(Instant.now());
+    }
+
+    private String issue(User user, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(hash(rawToken), familyId, user,
+                Instant.now().plus(refreshExpiration)));
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.neura_search.service;
+
+import com.example.neura_search.model.ERole;
+import com.example.neura_search.model.Role;
+import com.example.neura_search.repository.RoleRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The handful of {@link Role} rows, kept in memory so registration and imports do not
+ * query the roles table per user. {@code DatabaseInitializer} fills it at startup; roles
+ * are never renamed or removed, so entries do not go stale.
+ */
+@Component
+public class RoleCache {
+    private final RoleRepository roleRepository;
+    private final Map<ERole, Role> roles = new ConcurrentHashMap<>();
+
+    public RoleCache(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    public void put(Role role) {
+        roles.put(role.getName(), role);
+    }
+
+    public Role get(ERole name) {
+        Role role = roles.get(name);
+        if (role == null) {
+            role = roleRepository.findByName(name)
+                    .orElseThrow(() -> new RuntimeException("Error: Role " + name + " is not found."));
+            roles.put(name, role);
+        }
+        return role;
+    }
+
+    /**
+     * Maps the role names accepted at sign-up ({@code "admin"}, anything else meaning user).
+     */
+    public Role forRequestedName(String requested) {
+        return get("admin".equals(requested) ? ERole.ROLE_ADMIN : ERole.ROLE_USER);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.neura_search.service;
+
+import com.example.neura_search.chunk.TextChunk;
+import com.example.neura_search.dto.SearchHitResponse;
+import com.example.neura_search.index.Analyzer;
+import com.example.neura_search.index.DocumentIndexer;
+import com.example.neura_search.index.InvertedIndex;
+import com.example.neura_search.index.Snippets;
+import com.example.neura_search.store.DocumentStore;
+import com.example.neura_search.store.StoredDocument;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * BM25 over passages. Every chunk produced by the indexing pipeline becomes one
+ * entry in the inverted index; {@code passageRefs} maps the entry back to its
+ * document and byte range so snippets are read from the store on demand. Passages of
+ * deleted documents are purged from the index in the background.
+ */
+@Service
+public class SearchService implements DocumentIndexer {
+    private static final int SNIPPET_LENGTH = 240;
+
+    private final DocumentStore documentStore;
+    private final Analyzer analyzer = new Analyzer();
+    private final InvertedIndex invertedIndex = new InvertedIndex();
+
+    // (docId, byteStart, byteEnd, chunk ordinal) per passage
+    private volatile long[] passageRefs = new long[4 * 1024];
+    private int passageCount;
+    private final ChunkRanges documentPassages = new ChunkRanges();
+
+    public SearchService(DocumentStore documentStore) {
+        this.documentStore = documentStore;
+    }
+
+    @Override
+    public synchronized void index(StoredDocument document, List<TextChunk> chunks) {
+        documentPassages.add(document.id(), passageCount, chunks.size());
+        for (TextChunk chunk : chunks) {
+            Map<String, Integer> termFrequencies = new HashMap<>();
+            List<String> terms = analyzer.analyze(chunk.text());
+            for (String term : terms) {
+                termFrequencies.merge(term, 1, Integer::sum);
+            }
+
+            int passage = passageCount++;
+            long[] refs = passageRefs;
+            if (4 * passage + 4 > refs.length) {
+                refs = Arrays.copyOf(refs, refs.length * 2);
+            }
+            refs[4 * passage] = chunk.docId();
+            refs[4 * passage + 1] = chunk.byteStart();
+            refs[4 * passage + 2] = chunk.byteEnd();
+            refs[4 * passage + 3] = chunk.ordinal();
+            passageRefs = refs;
+
+            invertedIndex.add(passage, termFrequencies, terms.size());
+        }
+    }
+
+    @Override
+    public synchronized void removed(long docId) {
+        int[] runs = documentPassages.remove(docId);
+        if (runs == null) {
+            return;
+        }
+        for (int run = 0; run < runs.length; run += 2) {
+            invertedIndex.removeRange(runs[run], runs[run] + runs[run + 1]);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.purge-interval:5000}")
+    public void purgeRemoved() {
+        invertedIndex.purge();
+    }
+
+    public List<SearchHitResponse> search(String query, int limit, LongPredicate visible) throws IOException {
+        List<String> terms = analyzer.analyze(query);
+        Set<String> termSet = new HashSet<>(terms);
+        // passageRefs only grows and is published before a passage is indexed, so re-reading it is safe
+        List<InvertedIndex.Hit> hits = invertedIndex.search(terms, limit,
+                passage -> visible.test(passageRefs[4 * (int) passage]));
+
+        long[] refs = passageRefs;
+        List<SearchHitResponse> results = new ArrayList<>();
+        for (InvertedIndex.Hit hit : hits) {
+            int passage = (int) hit.docId();
+            long docId = refs[4 * passage];
+            StoredDocument document = documentStore.get(docId).orElse(null);
+            if (document == null) {
+                continue;
+            }
+            long start = refs[4 * passage + 1];
+            long end = refs[4 * passage + 2];
+            ByteBuffer body;
+            try {
+                body = documentStore.body(docId);
+            } catch (NoSuchElementException e) {
+                // Deleted since get()
+                continue;
+            }
+            String text = StandardCharsets.UTF_8.decode(body.slice((int) start, (int) (end - start))).toString();
+            String snippet = Snippets.build(new StringReader(text), termSet);
+            if (snippet.isEmpty()) {
+                snippet = Snippets.head(text, SNIPPET_LENGTH);
+            }
+            results.add(new SearchHitResponse(docId, docId + ":" + refs[4 * passage + 3],
+                    document.contentType(), hit.score(), snippet));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.neura_search.service;
+
+import com.example.neura_search.dto.RegisterRequest;
+import com.example.neura_search.dto.UserImportResult;
+import com.example.neura_search.model.ERole;
+import com.example.neura_search.model.Role;
+import com.example.neura_search.model.User;
+import com.example.neura_search.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk user provisioning from CSV ({@code username,email,password,roles} header, roles
+ * separated by {@code ;}) or NDJSON ({@link RegisterRequest} objects). Rows are read as a
+ * stream and handled in chunks: each chunk is validated with the sign-up rules, checked
+ * for existing usernames and emails with one {@code IN} query each, hashed in parallel and
+ * inserted in one transaction, which Hibernate sends as JDBC batches.
+ */
+@Service
+public class UserImportService {
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+    private static final int MAX_LISTED_REJECTIONS = 1000;
+
+    private final UserRepository userRepository;
+    private final RoleCache roleCache;
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor hashExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.users.import.chunk-size:1000}")
+    private int chunkSize;
+
+    public UserImportService(UserRepository userRepository, RoleCache roleCache, PasswordEncoder passwordEncoder,
+                             @Qualifier("importHashExecutor") ThreadPoolExecutor hashExecutor,
+                             TransactionTemplate transactionTemplate, Validator validator, ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.roleCache = roleCache;
+        this.passwordEncoder = passwordEncoder;
+        this.hashExecutor = hashExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
+    public UserImportResult importCsv(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            return new UserImportResult();
+        }
+        List<String> columns = header.stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+        int username = requireColumn(columns, "username");
+        int email = requireColumn(columns, "email");
+        int password = requireColumn(columns, "password");
+        int roles = columns.indexOf("roles");
+
+        return run(new RowSource() {
+            private long row;
+
+            @Override
+            public Row next() throws IOException {
+                List<String> record = readCsvRecord(reader);
+                if (record == null) {
+                    return null;
+                }
+                RegisterRequest request = new RegisterRequest();
+                request.setUsername(field(record, username));
+                request.setEmail(field(record, email));
+                request.setPassword(field(record, password));
+                String roleList = roles >= 0 ? field(record, roles) : null;
+                if (roleList != null && !roleList.isBlank()) {
+                    request.setRoles(Arrays.stream(roleList.split(";"))
+                            .map(String::trim)
+                            .filter(role -> !role.isEmpty())
+                            .collect(Collectors.toSet()));
+                }
+                return new Row(++row, request, null);
+            }
+        });
+    }
+
+    public UserImportResult importNdjson(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return run(new RowSource() {
+            private long row;
+
+            @Override
+            public Row next() throws IOException {
+                String line;
+                do {
+                    line = reader.readLine();
+                    if (line == null) {
+                        return null;
+                    }
+                } while (line.isBlank());
+                row++;
+                try {
+                    return new Row(row, objectMapper.readValue(line, RegisterRequest.class), null);
+                } catch (JsonProcessingException e) {
+                    return new Row(row, null, "Malformed JSON");
+                }
+            }
+        });
+    }
+
+    private UserImportResult run(RowSource source) throws IOException {
+        UserImportResult result = new UserImportResult();
+        // Keys seen earlier in this import; the database check only covers committed users
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        long started = System.nanoTime();
+
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        for (Row row = source.next(); row != null; row = source.next()) {
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, seenUsernames, seenEmails, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, seenUsernames, seenEmails, result);
+        }
+        log.info("Imported {} users ({} rejected) in {} ms", result.getCreated(), result.getRejected(),
+                (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    private void importChunk(List<Row> chunk, Set<String> seenUsernames, Set<String> seenEmails,
+                             UserImportResult result) {
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            String problem = row.problem() != null ? row.problem() : validate(row.request());
+            if (problem == null && !seenUsernames.add(key(row.request().getUsername()))) {
+                problem = "Duplicate username in import";
+            }
+            if (problem == null && !seenEmails.add(key(row.request().getEmail()))) {
+                problem = "Duplicate email in import";
+            }
+            if (problem != null) {
+                reject(result, row, problem);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        // MySQL compares with a case-insensitive collation, so match keys the same way
+        Set<String> takenUsernames = keys(userRepository.findExistingUsernames(
+                valid.stream().map(row -> row.request().getUsername()).toList()));
+        Set<String> takenEmails = keys(userRepository.findExistingEmails(
+                valid.stream().map(row -> row.request().getEmail()).toList()));
+        List<Row> fresh = new ArrayList<>(valid.size());
+        for (Row row : valid) {
+            if (takenUsernames.contains(key(row.request().getUsername()))) {
+                reject(result, row, "Username is already taken!");
+            } else if (takenEmails.contains(key(row.request().getEmail()))) {
+                reject(result, row, "Email is already in use!");
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = hashAll(fresh);
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(toUsers(fresh, hashes)));
+            result.setCreated(result.getCreated() + fresh.size());
+        } catch (DataIntegrityViolationException e) {
+            // Someone registered one of these names after the check; find out which, row by row
+            for (int i = 0; i < fresh.size(); i++) {
+                List<Row> one = List.of(fresh.get(i));
+                List<String> hash = List.of(hashes.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(toUsers(one, hash)));
+                    result.setCreated(result.getCreated() + 1);
+                } catch (DataIntegrityViolationException conflict) {
+                    reject(result, one.get(0), "Username or email already exists");
+                }
+            }
+        }
+    }
+
+    /**
+     * BCrypt is deliberately slow, so the chunk is split into one slice per hashing thread.
+     */
+    private List<String> hashAll(List<Row> rows) {
+        int slices = Math.min(rows.size(), hashExecutor.getMaximumPoolSize());
+        int sliceSize = (rows.size() + slices - 1) / slices;
+        List<CompletableFuture<List<String>>> futures = new ArrayList<>(slices);
+        for (int start = 0; start < rows.size(); start += sliceSize) {
+            List<Row> slice = rows.subList(start, Math.min(rows.size(), start + sliceSize));
+            futures.add(CompletableFuture.supplyAsync(() -> slice.stream()
+                    .map(row -> passwordEncoder.encode(row.request().getPassword()))
+                    .toList(), hashExecutor));
+        }
+        List<String> hashes = new ArrayList<>(rows.size());
+        futures.forEach(future -> hashes.addAll(future.join()));
+        return hashes;
+    }
+
+    private List<User> toUsers(List<Row> rows, List<String> hashes) {
+        List<User> users = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            RegisterRequest request = rows.get(i).request();
+            User user = new User(request.getUsername(), request.getEmail(), hashes.get(i));
+            Set<Role> roles = new HashSet<>();
+            if (request.getRoles() == null || request.getRoles().isEmpty()) {
+                roles.add(roleCache.get(ERole.ROLE_USER));
+            } else {
+                request.getRoles().forEach(role -> roles.add(roleCache.forRequestedName(role)));
+            }
+            user.setRoles(roles);
+            users.add(user);
+        }
+        return users;
+    }
+
+    private String validate(RegisterRequest request) {
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+        return violations.stream()
+                .min(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .orElse(null);
+    }
+
+    private static void reject(UserImportResult result, Row row, String reason) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getRejections().size() < MAX_LISTED_REJECTIONS) {
+            String username = row.request() != null ? row.request().getUsername() : null;
+            result.getRejections().add(new UserImportResult.Rejection(row.number(), username, reason));
+        }
+    }
+
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> keys(List<String> values) {
+        return values.stream().map(UserImportService::key).collect(Collectors.toSet());
+    }
+
+    private static int requireColumn(List<String> columns, String name) {
+        int index = columns.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("CSV header has no " + name + " column");
+        }
+        return index;
+    }
+
+    private static String field(List<String> record, int index) {
+        return index < record.size() ? record.get(index) : null;
+    }
+
+    /**
+     * Reads one RFC 4180 record, or null at the end of input. Quoted fields may hold
+     * commas, doubled quotes and line breaks; blank lines are skipped.
+     */
+    static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = reader.read()) >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                any = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                any = true;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                if (any || field.length() > 0) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+            } else {
+                field.append((char) c);
+                any = true;
+            }
+        }
+        if (any || field.length() > 0) {
+            fields.add(field.toString());
+            return fields;
+        }
+        return null;
+    }
+
+    private record Row(long number, RegisterRequest request, String problem) {
+    }
+
+    private interface RowSource {
+        Row next() throws IOException;
+    }
+}
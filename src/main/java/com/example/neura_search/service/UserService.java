@@ -1,39 +1,51 @@
 package com.example.neura_search.service;
 
+import com.example.neura_search.dto.UserPage;
+import com.example.neura_search.dto.UserSummary;
 import com.example.neura_search.model.ERole;
 import com.example.neura_search.model.Role;
 import com.example.neura_search.model.User;
-import com.example.neura_search.repository.RoleRepository;
+import com.example.neura_search.repository.RefreshTokenRepository;
 import com.example.neura_search.repository.UserRepository;
+import com.example.neura_search.repository.UserRoleRow;
 import com.example.neura_search.security.PasswordEncoderConfig;
+import com.example.neura_search.security.UserPrincipal;
+import com.example.neura_search.security.UserStateCache;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class UserService implements UserDetailsService {
+    public static final int MAX_PAGE_SIZE = 1000;
 
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RoleCache roleCache;
 
     @Autowired
     private PasswordEncoderConfig passwordEncoderConfig;
 
-    public UserRepository getUserRepository() {
-        return userRepository;
-    }
+    @Autowired
+    private UserStateCache userStateCache;
 
     @Override
     @Transactional
@@ -41,14 +53,7 @@ public class UserService implements UserDetailsService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
-        List<SimpleGrantedAuthority> authorities = user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority(role.getName().name()))
-                .collect(Collectors.toList());
-
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                authorities);
+        return UserPrincipal.from(user);
     }
 
     public User registerUser(String username, String email, String password, Set<String> strRoles) {
@@ -64,30 +69,67 @@ public class UserService implements UserDetailsService {
         Set<Role> roles = new HashSet<>();
 
         if (strRoles == null || strRoles.isEmpty()) {
-            Role userRole = roleRepository.findByName(ERole.ROLE_USER)
-                    .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-            roles.add(userRole);
+            roles.add(roleCache.get(ERole.ROLE_USER));
         } else {
-            strRoles.forEach(role -> {
-                switch (role) {
-                    case "admin":
-                        Role adminRole = roleRepository.findByName(ERole.ROLE_ADMIN)
-                                .orElseThrow(() -> new RuntimeException("Error: Admin Role is not found."));
-                        roles.add(adminRole);
-                        break;
-                    default:
-                        Role userRole = roleRepository.findByName(ERole.ROLE_USER)
-                                .orElseThrow(() -> new RuntimeException("Error: User Role is not found."));
-                        roles.add(userRole);
-                }
-            });
+            strRoles.forEach(role -> roles.add(roleCache.forRequestedName(role)));
         }
 
         user.setRoles(roles);
         return userRepository.save(user);
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    /**
+     * Invalidates every token issued to the user so far: access tokens through the token
+     * version, refresh tokens by revoking them as well.
+     */
+    @Transactional
+    public void revokeTokens(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
+        refreshTokenRepository.revokeAllOfUser(userId);
+        userStateCache.evict(user.getUsername());
+    }
+
+    /**
+     * One page of users in id order, starting after {@code cursor} (null for the first page).
+     * Keyset paging costs the same on every page, and roles come from one query per page.
+     */
+    @Transactional(readOnly = true)
+    public UserPage listUsers(String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // One row more than asked for says whether another page follows
+        List<UserSummary> users = userRepository.findSummariesAfter(decodeCursor(cursor), Limit.of(size + 1));
+        boolean more = users.size() > size;
+        List<UserSummary> page = more ? users.subList(0, size) : users;
+        attachRoles(page);
+        return new UserPage(page, more ? encodeCursor(page.get(size - 1).getId()) : null);
+    }
+
+    private void attachRoles(List<UserSummary> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Map<Long, UserSummary> byId = users.stream()
+                .collect(Collectors.toMap(UserSummary::getId, Function.identity()));
+        for (UserRoleRow row : userRepository.findRoles(byId.keySet())) {
+            byId.get(row.getUserId()).getRoles().add(row.getRole().name());
+        }
+    }
+
+    private static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,338 @@
+package com.example.neura_search.service;
+
+import com.example.neura_search.chunk.TextChunk;
+import com.example.neura_search.dto.SearchHitResponse;
+import com.example.neura_search.index.DocumentIndexer;
+import com.example.neura_search.index.Snippets;
+import com.example.neura_search.store.DocumentStore;
+import com.example.neura_search.store.StoredDocument;
+import com.example.neura_search.vector.EmbeddingProvider;
+import com.example.neura_search.vector.HnswIndex;
+import com.example.neura_search.vector.VectorStorage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Embeds the chunks of every stored document and serves approximate nearest-neighbor
+ * queries from an in-process HNSW graph. Vectors live off-heap in {@code vectors.f32};
+ * the chunk each node points at is appended to {@code chunks.bin} as
+ * (docId, byteStart, byteEnd, ordinal); the graph itself is checkpointed to {@code hnsw.graph}.
+ * <p>
+ * The graph cannot drop nodes, so the nodes of a deleted document are tombstoned: searches
+ * still walk through them but never return them. On startup, once tombstones make up
+ * {@code app.vector.rebuild-dead-ratio} of the nodes, the files are discarded and the
+ * index is rebuilt from the store by the pipeline's catch-up.
+ * <p>
+ * A caller who may read only a few documents is served by scoring their nodes directly:
+ * a filtered graph search would have to walk most of the graph to fill its result slots.
+ */
+@Service
+public class VectorIndexService implements DocumentIndexer {
+    private static final Logger log = LoggerFactory.getLogger(VectorIndexService.class);
+    private static final int REF_LONGS = 4;
+    private static final int NODE_RECORD_BYTES = REF_LONGS * Long.BYTES;
+    private static final int SNIPPET_LENGTH = 240;
+
+    private final DocumentStore documentStore;
+    private final EmbeddingProvider embeddingProvider;
+
+    @Value("${app.vector.dir:data/vectors}")
+    private String vectorDir;
+
+    @Value("${app.vector.m:16}")
+    private int m;
+
+    @Value("${app.vector.ef-construction:200}")
+    private int efConstruction;
+
+    @Value("${app.vector.ef-search:64}")
+    private int efSearch;
+
+    @Value("${app.vector.rebuild-dead-ratio:0.3}")
+    private double rebuildDeadRatio;
+
+    @Value("${app.vector.exact-search-max-nodes:4096}")
+    private int exactSearchMaxNodes;
+
+    private Path root;
+    private VectorStorage vectors;
+    private HnswIndex index;
+    private FileChannel nodeLog;
+    private volatile long[] nodeRefs = new long[REF_LONGS * 1024];
+    // Nodes of deleted documents, one bit each; set in place, replaced by a larger copy to grow
+    private volatile AtomicLongArray deadNodes = new AtomicLongArray(0);
+    private final ChunkRanges documentNodes = new ChunkRanges();
+    private volatile boolean dirty;
+    private long lastIndexed;
+
+    public VectorIndexService(DocumentStore documentStore, EmbeddingProvider embeddingProvider) {
+        this.documentStore = documentStore;
+        this.embeddingProvider = embeddingProvider;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        root = Paths.get(vectorDir);
+        Files.createDirectories(root);
+        if (!openFiles()) {
+            log.warn("Vector index at {} does not match the current configuration, rebuilding", root.toAbsolutePath());
+            reset();
+        }
+
+        // Ids are never reused, so a node whose document is gone from the store is dead for good
+        BitSet dead = new BitSet();
+        for (int node = 0; node < index.size(); node++) {
+            if (documentStore.get(nodeRefs[REF_LONGS * node]).isEmpty()) {
+                dead.set(node);
+            }
+        }
+        if (index.size() > 0 && dead.cardinality() >= rebuildDeadRatio * index.size()) {
+            log.info("{} of {} vectors belong to deleted documents, rebuilding the vector index",
+                    dead.cardinality(), index.size());
+            reset();
+            dead = new BitSet();
+        }
+        deadNodes = new AtomicLongArray(dead.toLongArray());
+
+        for (int node = 0; node < index.size(); node++) {
+            lastIndexed = Math.max(lastIndexed, nodeRefs[REF_LONGS * node]);
+        }
+        log.info("Vector index opened with {} chunks", index.size());
+    }
+
+    /**
+     * Deletes the index files and starts over empty.
+     */
+    private void reset() throws IOException {
+        close();
+        for (String name : List.of("vectors.f32", "chunks.bin", "hnsw.graph")) {
+            Files.deleteIfExists(root.resolve(name));
+        }
+        dirty = false;
+        openFiles();
+    }
+
+    private boolean openFiles() throws IOException {
+        vectors = new VectorStorage(root.resolve("vectors.f32"), embeddingProvider.dimension());
+        index = new HnswIndex(vectors, m, efConstruction);
+        nodeLog = FileChannel.open(root.resolve("chunks.bin"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        int nodes = (int) (nodeLog.size() / NODE_RECORD_BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(nodes * NODE_RECORD_BYTES);
+        while (buffer.hasRemaining() && nodeLog.read(buffer, buffer.position()) > 0) {
+            // keep reading
+        }
+        buffer.flip();
+        long[] refs = new long[Math.max(REF_LONGS * 1024, REF_LONGS * nodes)];
+        for (int i = 0; i < REF_LONGS * nodes; i++) {
+            refs[i] = buffer.getLong();
+        }
+        nodeRefs = refs;
+        nodeLog.truncate((long) nodes * NODE_RECORD_BYTES);
+        documentNodes.clear();
+        for (int node = 0; node < nodes; node++) {
+            documentNodes.add(refs[REF_LONGS * node], node, 1);
+        }
+
+        Path graph = root.resolve("hnsw.graph");
+        if (Files.exists(graph) && (!index.load(graph) || index.size() > nodes)) {
+            return false;
+        }
+        // Nodes whose vectors were written after the last graph checkpoint
+        vectors.ensureCapacity(nodes);
+        for (int node = index.size(); node < nodes; node++) {
+            index.add(vectors.get(node));
+        }
+        return true;
+    }
+
+    /**
+     * Documents are fed in id order, so anything at or below the highest indexed id is already present.
+     */
+    @Override
+    public boolean needs(StoredDocument document) {
+        return document.id() > lastIndexed;
+    }
+
+    @Override
+    public synchronized void index(StoredDocument document, List<TextChunk> chunks) throws IOException {
+        int first = index.size();
+        for (TextChunk chunk : chunks) {
+            addChunk(chunk);
+        }
+        documentNodes.add(document.id(), first, chunks.size());
+        lastIndexed = Math.max(lastIndexed, document.id());
+        dirty = true;
+    }
+
+    @Override
+    public synchronized void removed(long docId) {
+        int[] runs = documentNodes.remove(docId);
+        if (runs == null) {
+            return;
+        }
+        for (int run = 0; run < runs.length; run += 2) {
+            for (int node = runs[run]; node < runs[run] + runs[run + 1]; node++) {
+                markDead(node);
+            }
+        }
+    }
+
+    private void markDead(int node) {
+        AtomicLongArray dead = deadNodes;
+        int word = node >>> 6;
+        if (word >= dead.length()) {
+            AtomicLongArray grown = new AtomicLongArray(Math.max(word + 1, dead.length() * 2));
+            for (int i = 0; i < dead.length(); i++) {
+                grown.set(i, dead.get(i));
+            }
+            deadNodes = dead = grown;
+        }
+        dead.getAndAccumulate(word, 1L << node, (bits, bit) -> bits | bit);
+    }
+
+    private static boolean isDead(AtomicLongArray dead, int node) {
+        int word = node >>> 6;
+        return word < dead.length() && (dead.get(word) & 1L << node) != 0;
+    }
+
+    /**
+     * Returns up to {@code k} chunks closest to {@code query} among the documents in {@code readable}.
+     */
+    public List<SearchHitResponse> search(String query, int k, RoaringBitmap readable) throws IOException {
+        float[] vector = embeddingProvider.embed(query);
+        AtomicLongArray dead = deadNodes;
+        int[] candidates = readableNodes(readable, dead);
+        // nodeRefs only grows and is published before a node joins the graph, so re-reading it is always safe
+        List<HnswIndex.Result> results = candidates != null
+                ? index.searchExact(vector, k, candidates)
+                : index.search(vector, k, efSearch, node -> {
+                    long docId = nodeRefs[REF_LONGS * node];
+                    return !isDead(dead, node) && docId <= Integer.MAX_VALUE && readable.contains((int) docId);
+                });
+        long[] refs = nodeRefs;
+
+        List<SearchHitResponse> hits = new ArrayList<>(results.size());
+        for (HnswIndex.Result result : results) {
+            int base = REF_LONGS * result.node();
+            long docId = refs[base];
+            StoredDocument document = documentStore.get(docId).orElse(null);
+            if (document == null) {
+                continue;
+            }
+            long start = refs[base + 1];
+            long end = refs[base + 2];
+            ByteBuffer body;
+            try {
+                body = documentStore.body(docId);
+            } catch (NoSuchElementException e) {
+                // Deleted since get()
+                continue;
+            }
+            String text = StandardCharsets.UTF_8.decode(body.slice((int) start, (int) (end - start))).toString();
+            hits.add(new SearchHitResponse(docId, docId + ":" + refs[base + 3], document.contentType(),
+                    result.score(), Snippets.head(text, SNIPPET_LENGTH)));
+        }
+        return hits;
+    }
+
+    /**
+     * The live nodes of the {@code readable} documents, or null if there are more than
+     * {@code app.vector.exact-search-max-nodes} of them and the graph search is cheaper.
+     */
+    private int[] readableNodes(RoaringBitmap readable, AtomicLongArray dead) {
+        if (readable.getLongCardinality() > exactSearchMaxNodes) {
+            return null;
+        }
+        int[] nodes = new int[exactSearchMaxNodes];
+        int count = 0;
+        for (IntIterator docIds = readable.getIntIterator(); docIds.hasNext(); ) {
+            int[] runs = documentNodes.get(docIds.next());
+            if (runs == null) {
+                continue;
+            }
+            for (int run = 0; run < runs.length; run += 2) {
+                if (count + runs[run + 1] > nodes.length) {
+                    return null;
+                }
+                for (int node = runs[run]; node < runs[run] + runs[run + 1]; node++) {
+                    if (!isDead(dead, node)) {
+                        nodes[count++] = node;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(nodes, count);
+    }
+
+    private void addChunk(TextChunk chunk) throws IOException {
+        int node = index.size();
+        long[] refs = nodeRefs;
+        if (REF_LONGS * node + REF_LONGS > refs.length) {
+            refs = Arrays.copyOf(refs, refs.length * 2);
+        }
+        int base = REF_LONGS * node;
+        refs[base] = chunk.docId();
+        refs[base + 1] = chunk.byteStart();
+        refs[base + 2] = chunk.byteEnd();
+        refs[base + 3] = chunk.ordinal();
+        nodeRefs = refs;
+
+        index.add(embeddingProvider.embed(chunk.text()));
+
+        ByteBuffer record = ByteBuffer.allocate(NODE_RECORD_BYTES)
+                .putLong(chunk.docId())
+                .putLong(chunk.byteStart())
+                .putLong(chunk.byteEnd())
+                .putLong(chunk.ordinal())
+                .flip();
+        long position = (long) node * NODE_RECORD_BYTES;
+        while (record.hasRemaining()) {
+            position += nodeLog.write(record, position);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.vector.checkpoint-interval:60000}")
+    public void checkpoint() throws IOException {
+        if (dirty) {
+            dirty = false;
+            index.save(root.resolve("hnsw.graph"));
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (index != null && dirty) {
+            index.save(root.resolve("hnsw.graph"));
+        }
+        if (nodeLog != null) {
+            nodeLog.close();
+        }
+        if (vectors != null) {
+            vectors.close();
+        }
+    }
+}
@@ -0,0 +1,538 @@
+package com.example.neura_search.store;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only store of extracted document text, split into segment files that
+ * roll over at {@code app.store.segment-max-bytes}. Appends are serialized;
+ * reads are lock-free through the in-memory offset index and memory-mapped segments.
+ * <p>
+ * Deleting a document appends a tombstone. A background task rewrites sealed segments
+ * whose deleted records make up at least {@code app.store.compaction.min-dead-ratio} of
+ * the file, copying the live records into a fresh file at no more than
+ * {@code app.store.compaction.max-bytes-per-second} and renaming it over the old one.
+ * Readers resolve a document and its segment under an optimistic stamp, so they only
+ * retry, never wait, while a rewritten segment is swapped in.
+ */
+@Component
+public class DocumentStore {
+    private static final Logger log = LoggerFactory.getLogger(DocumentStore.class);
+    private static final String ORIGINALS_DIR = "originals";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.seg");
+    private static final String COMPACT_SUFFIX = ".compact";
+    private static final int NO_SEGMENT = -1;
+    private static final long COMPACTION_CHUNK_BYTES = 1024 * 1024;
+    // Segments are mapped with int offsets, so a whole record, header included, must end below this
+    private static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE;
+
+    @Value("${app.store.dir:data/store}")
+    private String storeDir;
+
+    @Value("${app.store.segment-max-bytes:268435456}")
+    private long segmentMaxBytes;
+
+    @Value("${app.store.keep-originals:true}")
+    private boolean keepOriginals;
+
+    @Value("${app.store.compaction.min-dead-ratio:0.3}")
+    private double minDeadRatio;
+
+    @Value("${app.store.compaction.max-bytes-per-second:33554432}")
+    private long maxCompactionBytesPerSecond;
+
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final Map<Long, StoredDocument> index = new ConcurrentHashMap<>();
+    // Deleted documents whose tombstone is still on disk, and bytes of deleted records per segment
+    private final Map<Long, Deletion> deletions = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> deadBytes = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Object writeLock = new Object();
+    private final Object compactionLock = new Object();
+    // Held for writing only while a compacted segment is swapped in
+    private final StampedLock swapLock = new StampedLock();
+    private Path root;
+    private volatile Segment active;
+
+    /**
+     * Where the deleted record of a document (if not compacted away yet) and its tombstone are.
+     */
+    private record Deletion(int recordSegment, int tombstoneSegment, long tombstoneLength) {
+    }
+
+    private record Located(StoredDocument document, Segment segment) {
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        root = Paths.get(storeDir);
+        Files.createDirectories(root);
+        Files.createDirectories(root.resolve(ORIGINALS_DIR));
+
+        List<Integer> ids = new ArrayList<>();
+        List<Path> abandoned = new ArrayList<>();
+        try (Stream<Path> files = Files.list(root)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                Matcher matcher = SEGMENT_NAME.matcher(name);
+                if (matcher.matches()) {
+                    ids.add(Integer.parseInt(matcher.group(1)));
+                } else if (name.endsWith(COMPACT_SUFFIX)) {
+                    abandoned.add(file);
+                }
+            });
+        }
+        Collections.sort(ids);
+        // A compaction interrupted before its rename; the original segment is intact
+        for (Path file : abandoned) {
+            Files.delete(file);
+        }
+
+        for (int id : ids) {
+            Segment segment = Segment.open(id, segmentPath(id));
+            segment.scan((record, tombstone) -> {
+                if (tombstone) {
+                    replayTombstone(record);
+                } else {
+                    register(record);
+                }
+            });
+            segments.put(id, segment);
+            active = segment;
+        }
+        if (active == null) {
+            active = createSegment(1);
+        }
+        // The newest id's tombstone is kept so ids are never handed out twice, see compact()
+        Deletion newest = deletions.get(nextId.get() - 1);
+        if (newest != null && newest.recordSegment() == NO_SEGMENT) {
+            addDeadBytes(newest.tombstoneSegment(), -newest.tombstoneLength());
+        }
+        log.info("Opened document store at {} with {} documents in {} segments",
+                root.toAbsolutePath(), index.size(), segments.size());
+    }
+
+    /**
+     * Appends the UTF-8 text in {@code body} as a new document and returns its record.
+     */
+    public StoredDocument append(String owner, String contentType, Path body) throws IOException {
+        return append(owner, contentType, Map.of(), body);
+    }
+
+    public StoredDocument append(String owner, String contentType, Map<String, String> attributes, Path body)
+            throws IOException {
+        return appendAll(List.of(new NewDocument(owner, contentType, attributes, body))).get(0);
+    }
+
+    /**
+     * Appends several documents under one acquisition of the write lock, in order, and
+     * returns their records. Bodies are validated before anything is written.
+     */
+    public List<StoredDocument> appendAll(List<NewDocument> batch) throws IOException {
+        List<FileChannel> sources = new ArrayList<>(batch.size());
+        long[] recordLengths = new long[batch.size()];
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                NewDocument pending = batch.get(i);
+                FileChannel source = FileChannel.open(pending.body(), StandardOpenOption.READ);
+                sources.add(source);
+                recordLengths[i] = Segment.headerLength(pending.owner(), contentType(pending), pending.attributes())
+                        + source.size();
+                if (recordLengths[i] > MAX_SEGMENT_BYTES) {
+                    throw new IOException("Extracted text exceeds the maximum segment size");
+                }
+            }
+            List<StoredDocument> documents = new ArrayList<>(batch.size());
+            synchronized (writeLock) {
+                for (int i = 0; i < batch.size(); i++) {
+                    FileChannel source = sources.get(i);
+                    Segment segment = segmentFor(recordLengths[i]);
+                    NewDocument pending = batch.get(i);
+                    StoredDocument document = segment.append(nextId.getAndIncrement(), pending.owner(),
+                            contentType(pending), pending.attributes(), source);
+                    index.put(document.id(), document);
+                    documents.add(document);
+                }
+            }
+            return documents;
+        } finally {
+            for (FileChannel source : sources) {
+                source.close();
+            }
+        }
+    }
+
+    /**
+     * Deletes document {@code id} by appending a tombstone, and drops its original. The
+     * record's bytes are reclaimed when its segment is compacted. Returns false when there
+     * is no such document.
+     */
+    public boolean delete(long id) throws IOException {
+        synchronized (writeLock) {
+            StoredDocument document = index.get(id);
+            if (document == null) {
+                return false;
+            }
+            StoredDocument tombstone = segmentFor(Segment.tombstoneLength()).appendTombstone(id);
+            index.remove(id);
+            deletions.put(id, new Deletion(document.segmentId(), tombstone.segmentId(), recordLength(tombstone)));
+            addDeadBytes(document.segmentId(), recordLength(document));
+        }
+        Files.deleteIfExists(originalPath(id));
+        return true;
+    }
+
+    /**
+     * Keeps the uploaded original of document {@code id} by moving {@code source} into the
+     * store; on the same file system that is a rename, so the upload is not copied again.
+     * Returns false, leaving {@code source} in place, when originals are not kept.
+     */
+    public boolean keepOriginal(long id, Path source) throws IOException {
+        if (!keepOriginals) {
+            return false;
+        }
+        Path target = originalPath(id);
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return true;
+    }
+
+    public Optional<Path> original(long id) {
+        Path path = originalPath(id);
+        return index.containsKey(id) && Files.exists(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    public Optional<StoredDocument> get(long id) {
+        return Optional.ofNullable(index.get(id));
+    }
+
+    public Collection<StoredDocument> documents() {
+        return Collections.unmodifiableCollection(index.values());
+    }
+
+    /**
+     * Descriptive attributes stored in the document's header, read from the mapped segment
+     * rather than held in memory.
+     */
+    public Map<String, String> attributes(long id) throws IOException {
+        Located located = locate(id);
+        return located.segment().attributes(located.document());
+    }
+
+    /**
+     * Read-only mapped view of the document's UTF-8 body.
+     */
+    public ByteBuffer body(long id) throws IOException {
+        Located located = locate(id);
+        return located.segment().slice(located.document().bodyOffset(), located.document().bodyLength());
+    }
+
+    public InputStream openBody(long id) throws IOException {
+        return new ByteBufferInputStream(body(id));
+    }
+
+    public String readText(long id) throws IOException {
+        return StandardCharsets.UTF_8.decode(body(id)).toString();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (compactionLock) {
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        }
+    }
+
+    /**
+     * Rewrites every sealed segment whose deleted records reach the configured share of it.
+     */
+    @Scheduled(fixedDelayString = "${app.store.compaction.interval:60000}")
+    public void compact() {
+        List<Integer> candidates = segments.keySet().stream()
+                .filter(id -> id != active.id())
+                .filter(id -> {
+                    long dead = deadBytes.getOrDefault(id, 0L);
+                    return dead > 0 && dead >= minDeadRatio * segments.get(id).size();
+                })
+                .sorted()
+                .toList();
+        for (int id : candidates) {
+            try {
+                compact(id);
+            } catch (IOException e) {
+                log.warn("Could not compact segment {}", id, e);
+            }
+        }
+    }
+
+    /**
+     * Copies the live records of sealed segment {@code id}, and the tombstones still needed,
+     * into a new file and renames it over the segment. Deletes racing with the copy stay
+     * deleted: their copied records are counted as dead in the new file.
+     */
+    void compact(int id) throws IOException {
+        synchronized (compactionLock) {
+            Segment source = segments.get(id);
+            if (source == null || source == active) {
+                return;
+            }
+            long started = System.nanoTime();
+            Path target = root.resolve(segmentPath(id).getFileName() + COMPACT_SUFFIX);
+            List<StoredDocument[]> moved = new ArrayList<>();
+            List<Long> droppedTombstones = new ArrayList<>();
+            long written;
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long[] position = {0};
+                long[] copied = {0};
+                source.scan((record, tombstone) -> {
+                    boolean keep;
+                    if (tombstone) {
+                        Deletion deletion = deletions.get(record.id());
+                        // Needed while the deleted record survives in an earlier segment, and for
+                        // the newest id, which otherwise could be handed out again after a restart
+                        keep = (deletion != null && deletion.recordSegment() != NO_SEGMENT
+                                && deletion.recordSegment() != id) || record.id() == nextId.get() - 1;
+                        if (!keep) {
+                            droppedTombstones.add(record.id());
+                        }
+                    } else {
+                        StoredDocument current = index.get(record.id());
+                        keep = current != null && current.segmentId() == id
+                                && current.recordOffset() == record.recordOffset();
+                    }
+                    if (!keep) {
+                        return;
+                    }
+                    long length = recordLength(record);
+                    long newOffset = position[0];
+                    copy(source, record.recordOffset(), length, out, newOffset, copied, started);
+                    position[0] += length;
+                    if (!tombstone) {
+                        moved.add(new StoredDocument[]{record, new StoredDocument(record.id(), record.owner(),
+                                record.contentType(), id, newOffset,
+                                newOffset + record.bodyOffset() - record.recordOffset(), record.bodyLength())});
+                    }
+                });
+                written = position[0];
+                out.force(true);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(target);
+                throw e;
+            }
+            // Readers still holding the old segment are served from its mapping after the swap
+            source.load();
+            long before = source.size();
+
+            synchronized (writeLock) {
+                Segment compacted = null;
+                if (written > 0) {
+                    moveAtomically(target, segmentPath(id));
+                    compacted = Segment.open(id, segmentPath(id));
+                } else {
+                    Files.delete(target);
+                    Files.delete(segmentPath(id));
+                }
+                long dead = 0;
+                long stamp = swapLock.writeLock();
+                try {
+                    if (compacted != null) {
+                        segments.put(id, compacted);
+                    } else {
+                        segments.remove(id);
+                    }
+                    for (StoredDocument[] move : moved) {
+                        StoredDocument old = move[0];
+                        StoredDocument updated = index.computeIfPresent(old.id(),
+                                (docId, current) -> current.recordOffset() == old.recordOffset()
+                                        && current.segmentId() == id ? move[1] : current);
+                        if (updated == null) {
+                            dead += recordLength(old);
+                        }
+                    }
+                } finally {
+                    swapLock.unlockWrite(stamp);
+                }
+                for (long docId : droppedTombstones) {
+                    deletions.remove(docId);
+                }
+                Set<Long> movedIds = new HashSet<>();
+                moved.forEach(move -> movedIds.add(move[0].id()));
+                // Records deleted before the copy are gone now, which frees their tombstones
+                deletions.replaceAll((docId, deletion) -> {
+                    if (deletion.recordSegment() != id || movedIds.contains(docId)) {
+                        return deletion;
+                    }
+                    if (deletion.tombstoneSegment() != id && docId != nextId.get() - 1) {
+                        addDeadBytes(deletion.tombstoneSegment(), deletion.tombstoneLength());
+                    }
+                    return new Deletion(NO_SEGMENT, deletion.tombstoneSegment(), deletion.tombstoneLength());
+                });
+                if (compacted != null) {
+                    deadBytes.put(id, dead);
+                } else {
+                    deadBytes.remove(id);
+                }
+            }
+            source.retire();
+            log.info("Compacted segment {} from {} to {} bytes in {} ms", id, before, written,
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private void copy(Segment source, long offset, long length, FileChannel out, long position,
+                      long[] copied, long started) throws IOException {
+        long done = 0;
+        while (done < length) {
+            long n = source.transferTo(offset + done, Math.min(length - done, COMPACTION_CHUNK_BYTES), out,
+                    position + done);
+            if (n <= 0) {
+                throw new IOException("Short transfer while compacting segment " + source.id());
+            }
+            done += n;
+            copied[0] += n;
+            throttle(copied[0], started);
+        }
+    }
+
+    /**
+     * Sleeps until copying {@code copied} bytes since {@code started} fits the I/O budget.
+     */
+    private void throttle(long copied, long started) throws IOException {
+        if (maxCompactionBytesPerSecond <= 0) {
+            return;
+        }
+        long due = started + (long) (copied * (double) TimeUnit.SECONDS.toNanos(1) / maxCompactionBytesPerSecond);
+        long wait = due - System.nanoTime();
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Compaction interrupted");
+            }
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Located locate(long id) {
+        long stamp = swapLock.tryOptimisticRead();
+        StoredDocument document = index.get(id);
+        Segment segment = document == null ? null : segments.get(document.segmentId());
+        if (!swapLock.validate(stamp)) {
+            stamp = swapLock.readLock();
+            try {
+                document = index.get(id);
+                segment = document == null ? null : segments.get(document.segmentId());
+            } finally {
+                swapLock.unlockRead(stamp);
+            }
+        }
+        if (document == null || segment == null) {
+            throw new NoSuchElementException("Document not found: " + id);
+        }
+        return new Located(document, segment);
+    }
+
+    private static String contentType(NewDocument document) {
+        return document.contentType() == null ? "" : document.contentType();
+    }
+
+    /**
+     * The segment to append {@code length} more bytes to, rolling over to a new one when
+     * the active segment would outgrow the limit. Callers hold the write lock.
+     */
+    private Segment segmentFor(long length) throws IOException {
+        Segment segment = active;
+        if (segment.size() > 0 && segment.size() + length > Math.min(segmentMaxBytes, MAX_SEGMENT_BYTES)) {
+            segment = createSegment(segment.id() + 1);
+            active = segment;
+        }
+        return segment;
+    }
+
+    private void register(StoredDocument document) {
+        index.put(document.id(), document);
+        nextId.accumulateAndGet(document.id() + 1, Math::max);
+    }
+
+    private void replayTombstone(StoredDocument tombstone) {
+        nextId.accumulateAndGet(tombstone.id() + 1, Math::max);
+        StoredDocument deleted = index.remove(tombstone.id());
+        if (deleted != null) {
+            deletions.put(tombstone.id(),
+                    new Deletion(deleted.segmentId(), tombstone.segmentId(), recordLength(tombstone)));
+            addDeadBytes(deleted.segmentId(), recordLength(deleted));
+        } else {
+            // Its record was compacted away already, so the next rewrite may drop it
+            deletions.put(tombstone.id(), new Deletion(NO_SEGMENT, tombstone.segmentId(), recordLength(tombstone)));
+            addDeadBytes(tombstone.segmentId(), recordLength(tombstone));
+        }
+    }
+
+    private void addDeadBytes(int segmentId, long bytes) {
+        deadBytes.merge(segmentId, bytes, Long::sum);
+    }
+
+    private static long recordLength(StoredDocument record) {
+        return record.bodyOffset() + record.bodyLength() - record.recordOffset();
+    }
+
+    private Segment createSegment(int id) throws IOException {
+        Segment segment = Segment.open(id, segmentPath(id));
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private Path segmentPath(int id) {
+        return root.resolve(String.format("segment-%06d.seg", id));
+    }
+
+    private Path originalPath(long id) {
+        return root.resolve(ORIGINALS_DIR).resolve(Long.toString(id));
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.neura_search.store;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent SHA-256 content fingerprint -> document id map, used to skip parsing
+ * files that were already ingested. Fingerprints are scoped to the document owner: the
+ * key is the SHA-256 of the owner and the content digest, so a hit is always one of the
+ * uploader's own documents and says nothing about what other users stored. Entries are
+ * appended to {@code fingerprints.bin} as fixed 40-byte records and loaded into memory
+ * on startup.
+ */
+@Component
+public class FingerprintIndex {
+    private static final int DIGEST_BYTES = 32;
+    private static final int RECORD_BYTES = DIGEST_BYTES + Long.BYTES;
+    private static final int HASH_BUFFER_BYTES = 256 * 1024;
+
+    @Value("${app.store.dir:data/store}")
+    private String storeDir;
+
+    private final Map<String, Long> fingerprints = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bytesSkipped = new AtomicLong();
+    private FileChannel log;
+
+    public FingerprintIndex(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("neura.ingest.dedup", hits, AtomicLong::get)
+                .tag("outcome", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("neura.ingest.dedup", misses, AtomicLong::get)
+                .tag("outcome", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("neura.ingest.dedup.skipped", bytesSkipped, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path root = Paths.get(storeDir);
+        Files.createDirectories(root);
+        log = FileChannel.open(root.resolve("fingerprints.bin"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long records = log.size() / RECORD_BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES);
+        byte[] digest = new byte[DIGEST_BYTES];
+        for (long i = 0; i < records; i++) {
+            buffer.clear();
+            while (buffer.hasRemaining() && log.read(buffer, i * RECORD_BYTES + buffer.position()) > 0) {
+                // keep reading
+            }
+            buffer.flip();
+            buffer.get(digest);
+            fingerprints.put(HexFormat.of().formatHex(digest), buffer.getLong());
+        }
+        // Drop a torn record left by a crash mid-append
+        log.truncate(records * RECORD_BYTES);
+    }
+
+    /**
+     * Looks up {@code owner}'s document with the given hex SHA-256 content digest and counts
+     * the outcome as a hit or miss.
+     */
+    public Optional<Long> lookup(String owner, String fingerprint, long size) {
+        Long docId = fingerprints.get(key(owner, fingerprint));
+        if (docId == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        bytesSkipped.addAndGet(size);
+        return Optional.of(docId);
+    }
+
+    /**
+     * Uncounted lookup, for re-checking a fingerprint that was already counted.
+     */
+    public Optional<Long> find(String owner, String fingerprint) {
+        return Optional.ofNullable(fingerprints.get(key(owner, fingerprint)));
+    }
+
+    /**
+     * Maps {@code fingerprint} to {@code docId}, replacing an earlier mapping (say, to a
+     * document that was deleted since); the last record wins on replay.
+     */
+    public synchronized void record(String owner, String fingerprint, long docId) throws IOException {
+        String key = key(owner, fingerprint);
+        Long previous = fingerprints.put(key, docId);
+        if (previous != null && previous == docId) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES)
+                .put(HexFormat.of().parseHex(key))
+                .putLong(docId)
+                .flip();
+        long position = log.size();
+        while (record.hasRemaining()) {
+            position += log.write(record, position);
+        }
+    }
+
+    /**
+     * Hex SHA-256 of a file, read through its channel into a direct buffer.
+     */
+    public static String fingerprint(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_BYTES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String key(String owner, String fingerprint) {
+        MessageDigest digest = sha256();
+        digest.update(owner.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(HexFormat.of().parseHex(fingerprint));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getBytesSkipped() {
+        return bytesSkipped.get();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.neura_search.store;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * A document waiting to be appended: its header fields and the file holding its UTF-8 text.
+ * {@code attributes} are short descriptive properties (title, author, ...) kept in the header.
+ */
+public record NewDocument(String owner, String contentType, Map<String, String> attributes, Path body) {
+
+    public NewDocument(String owner, String contentType, Path body) {
+        this(owner, contentType, Map.of(), body);
+    }
+}
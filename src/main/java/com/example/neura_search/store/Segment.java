@@ -0,0 +1,365 @@
+package com.example.neura_search.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One append-only segment file. Records are laid out as
+ * <pre>
+ * int magic | byte version | byte flags | long docId
+ * short ownerLen | owner | short contentTypeLen | contentType
+ * short attributeCount | (short keyLen | key | short valueLen | value)*   (version 2 on)
+ * long bodyLength | body (UTF-8)
+ * </pre>
+ * A tombstone is a record with {@link #FLAG_TOMBSTONE} set, empty owner and content type,
+ * no attributes and no body; it deletes the earlier record with the same id.
+ * Writes are serialized by {@link DocumentStore}; reads go through read-only mappings.
+ * Bytes appended since the last mapping are mapped as a separate region on first read,
+ * so a read after an append maps only the new tail; once there are
+ * {@link #MAX_REGIONS} regions they are replaced by one mapping of the whole file.
+ * Regions end at record boundaries, so every record lies within one of them.
+ */
+class Segment implements Closeable {
+    static final int MAGIC = 0x4E534443; // "NSDC"
+    static final byte VERSION = 2;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    static final byte FLAG_DOCUMENT = 0;
+    static final byte FLAG_TOMBSTONE = 1;
+    private static final int MAX_REGIONS = 16;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
+    private final int id;
+    private final Path path;
+    private final FileChannel channel;
+    private volatile long size;
+    // Ordered by start, contiguous from offset 0; replaced, never modified
+    private volatile Region[] regions = new Region[0];
+
+    private record Region(long start, MappedByteBuffer buffer) {
+        long end() {
+            return start + buffer.capacity();
+        }
+
+        boolean covers(long offset, long length) {
+            return offset >= start && offset + length <= end();
+        }
+    }
+
+    /**
+     * Receives the records found by {@link #scan}; for a tombstone, {@code record} only
+     * carries the id and the record's position.
+     */
+    interface RecordVisitor {
+        void visit(StoredDocument record, boolean tombstone) throws IOException;
+    }
+
+    private Segment(int id, Path path, FileChannel channel, long size) {
+        this.id = id;
+        this.path = path;
+        this.channel = channel;
+        this.size = size;
+    }
+
+    static Segment open(int id, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(id, path, channel, channel.size());
+    }
+
+    int id() {
+        return id;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * Appends one document record, copying the body from {@code body} with
+     * {@link FileChannel#transferFrom} so the text never passes through the heap.
+     */
+    StoredDocument append(long docId, String owner, String contentType, Map<String, String> attributes,
+                          FileChannel body) throws IOException {
+        long bodyLength = body.size();
+        long recordOffset = size;
+        long bodyOffset = writeHeader(FLAG_DOCUMENT, docId, owner, contentType, attributes, bodyLength);
+        long copied = 0;
+        while (copied < bodyLength) {
+            long n = channel.transferFrom(body, bodyOffset + copied, bodyLength - copied);
+            if (n <= 0) {
+                throw new IOException("Short transfer while appending document " + docId);
+            }
+            copied += n;
+        }
+        size = bodyOffset + bodyLength;
+        return new StoredDocument(docId, owner, contentType, id, recordOffset, bodyOffset, bodyLength);
+    }
+
+    /**
+     * Appends a tombstone for {@code docId} and returns its position, as a record with no body.
+     */
+    StoredDocument appendTombstone(long docId) throws IOException {
+        long recordOffset = size;
+        long end = writeHeader(FLAG_TOMBSTONE, docId, "", "", Map.of(), 0);
+        size = end;
+        return new StoredDocument(docId, "", "", id, recordOffset, end, 0);
+    }
+
+    static long tombstoneLength() {
+        return 4 + 1 + 1 + 8 + 2 + 2 + 2 + 8;
+    }
+
+    /**
+     * Bytes the header of a record with these fields takes. Throws {@link IOException} when a
+     * field is too long to be stored.
+     */
+    static long headerLength(String owner, String contentType, Map<String, String> attributes) throws IOException {
+        long length = tombstoneLength() + encode(owner).length + encode(contentType).length;
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            length += 2 + encode(attribute.getKey()).length + 2 + encode(attribute.getValue()).length;
+        }
+        return length;
+    }
+
+    private long writeHeader(byte flags, long docId, String owner, String contentType,
+                             Map<String, String> attributes, long bodyLength) throws IOException {
+        byte[] ownerBytes = encode(owner);
+        byte[] typeBytes = encode(contentType);
+        byte[][] attributeBytes = new byte[2 * attributes.size()][];
+        int attributeLength = 2;
+        int i = 0;
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            attributeBytes[i] = encode(attribute.getKey());
+            attributeBytes[i + 1] = encode(attribute.getValue());
+            attributeLength += 2 + attributeBytes[i].length + 2 + attributeBytes[i + 1].length;
+            i += 2;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(4 + 1 + 1 + 8 + 2 + ownerBytes.length + 2 + typeBytes.length
+                + attributeLength + 8);
+        header.putInt(MAGIC)
+                .put(VERSION)
+                .put(flags)
+                .putLong(docId)
+                .putShort((short) ownerBytes.length).put(ownerBytes)
+                .putShort((short) typeBytes.length).put(typeBytes)
+                .putShort((short) attributes.size());
+        for (byte[] bytes : attributeBytes) {
+            header.putShort((short) bytes.length).put(bytes);
+        }
+        header.putLong(bodyLength).flip();
+
+        long position = size;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+        return position;
+    }
+
+    /**
+     * Walks the record headers, skipping bodies, and reports every complete record.
+     * A torn record at the tail (crash mid-append) is truncated away.
+     */
+    void scan(RecordVisitor visitor) throws IOException {
+        ByteBuffer map = mappedWhole();
+        long offset = 0;
+        while (offset < size) {
+            StoredDocument record;
+            boolean tombstone;
+            try {
+                map.position((int) offset);
+                if (map.getInt() != MAGIC) {
+                    break;
+                }
+                byte version = map.get();
+                tombstone = map.get() == FLAG_TOMBSTONE;
+                long docId = map.getLong();
+                String owner = readString(map);
+                String contentType = readString(map);
+                if (version >= 2) {
+                    skipAttributes(map);
+                }
+                long bodyLength = map.getLong();
+                long bodyOffset = map.position();
+                if (bodyOffset + bodyLength > size) {
+                    break;
+                }
+                record = new StoredDocument(docId, owner, contentType, id, offset, bodyOffset, bodyLength);
+            } catch (RuntimeException e) {
+                break;
+            }
+            visitor.visit(record, tombstone);
+            offset = record.bodyOffset() + record.bodyLength();
+        }
+        if (offset < size) {
+            channel.truncate(offset);
+            size = offset;
+            regions = new Region[0];
+        }
+    }
+
+    /**
+     * Reads the attributes from the header of {@code document}; records written before
+     * version 2 have none.
+     */
+    Map<String, String> attributes(StoredDocument document) throws IOException {
+        ByteBuffer header = slice(document.recordOffset(), document.bodyOffset() - document.recordOffset());
+        header.position(4);
+        byte version = header.get();
+        if (version < 2) {
+            return Map.of();
+        }
+        header.position(4 + 1 + 1 + 8);
+        readString(header); // owner
+        readString(header); // content type
+        int count = header.getShort() & 0xFFFF;
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            attributes.put(readString(header), readString(header));
+        }
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    /**
+     * Read-only view of {@code [offset, offset + length)}, backed by the file mapping.
+     */
+    ByteBuffer slice(long offset, long length) throws IOException {
+        if (length == 0) {
+            return EMPTY;
+        }
+        Region region = region(offset, length);
+        return region.buffer().slice((int) (offset - region.start()), (int) length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Copies up to {@code length} bytes starting at {@code offset} to {@code target} at
+     * {@code targetPosition} and returns how many were copied.
+     */
+    long transferTo(long offset, long length, FileChannel target, long targetPosition) throws IOException {
+        target.position(targetPosition);
+        return channel.transferTo(offset, length, target);
+    }
+
+    /**
+     * Maps the whole segment, so readers holding this instance never need its channel again.
+     */
+    void load() throws IOException {
+        mappedWhole();
+    }
+
+    /**
+     * Closes the file but keeps the mapping for readers that resolved a document to this
+     * segment before it was replaced; it is released once they let go of it.
+     */
+    void retire() throws IOException {
+        channel.close();
+    }
+
+    private Region region(long offset, long length) throws IOException {
+        Region region = find(regions, offset, length);
+        if (region != null) {
+            return region;
+        }
+        synchronized (this) {
+            Region[] current = regions;
+            region = find(current, offset, length);
+            if (region == null) {
+                long mappedEnd = current.length == 0 ? 0 : current[current.length - 1].end();
+                long end = size;
+                if (offset + length > end) {
+                    throw new IOException("Read past the end of segment " + id);
+                }
+                if (current.length + 1 >= MAX_REGIONS) {
+                    current = new Region[]{new Region(0, channel.map(FileChannel.MapMode.READ_ONLY, 0, end))};
+                } else {
+                    current = Arrays.copyOf(current, current.length + 1);
+                    current[current.length - 1] = new Region(mappedEnd,
+                            channel.map(FileChannel.MapMode.READ_ONLY, mappedEnd, end - mappedEnd));
+                }
+                region = find(current, offset, length);
+                if (region == null) {
+                    // Not cut at a record boundary; fall back to one mapping of the whole file
+                    region = new Region(0, channel.map(FileChannel.MapMode.READ_ONLY, 0, end));
+                    current = new Region[]{region};
+                }
+                regions = current;
+            }
+        }
+        return region;
+    }
+
+    private static Region find(Region[] regions, long offset, long length) {
+        int low = 0;
+        int high = regions.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Region region = regions[mid];
+            if (offset < region.start()) {
+                high = mid - 1;
+            } else if (offset >= region.end()) {
+                low = mid + 1;
+            } else {
+                return region.covers(offset, length) ? region : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One buffer over the whole segment, merging the regions first if needed.
+     */
+    private ByteBuffer mappedWhole() throws IOException {
+        synchronized (this) {
+            Region[] current = regions;
+            long end = size;
+            if (current.length != 1 || current[0].end() < end) {
+                current = new Region[]{new Region(0, channel.map(FileChannel.MapMode.READ_ONLY, 0, end))};
+                regions = current;
+            }
+            return current[0].buffer().duplicate();
+        }
+    }
+
+    private static byte[] encode(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IOException("Header field exceeds " + MAX_STRING_BYTES + " bytes");
+        }
+        return bytes;
+    }
+
+    private static void skipAttributes(ByteBuffer buffer) {
+        int count = buffer.getShort() & 0xFFFF;
+        for (int i = 0; i < 2 * count; i++) {
+            int length = buffer.getShort() & 0xFFFF;
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        regions = new Region[0];
+        channel.close();
+    }
+}
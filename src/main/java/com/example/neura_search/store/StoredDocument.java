@@ -0,0 +1,14 @@
+package com.example.neura_search.store;
+
+/**
+ * Location and header fields of one document record inside a segment file.
+ * {@code bodyOffset} is absolute within the segment; {@code bodyLength} is in UTF-8 bytes.
+ */
+public record StoredDocument(long id,
+                             String owner,
+                             String contentType,
+                             int segmentId,
+                             long recordOffset,
+                             long bodyOffset,
+                             long bodyLength) {
+}
@@ -0,0 +1,11 @@
+package com.example.neura_search.vector;
+
+/**
+ * Turns text into a fixed-size vector. Implementations must return unit-length
+ * vectors so that inner product equals cosine similarity in {@link HnswIndex}.
+ */
+public interface EmbeddingProvider {
+    int dimension();
+
+    float[] embed(String text);
+}
@@ -0,0 +1,71 @@
+package com.example.neura_search.vector;
+
+import com.example.neura_search.index.Analyzer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Deterministic feature-hashing embedder over unigrams and bigrams. It has no model
+ * to load, which makes it suitable for local runs and tests; semantic quality is
+ * limited to lexical overlap.
+ */
+@Component
+@ConditionalOnProperty(name = "app.vector.embedder", havingValue = "hashing", matchIfMissing = true)
+public class HashingEmbeddingProvider implements EmbeddingProvider {
+    private final Analyzer analyzer = new Analyzer();
+    private final int dimension;
+
+    public HashingEmbeddingProvider(@Value("${app.vector.dimension:256}") int dimension) {
+        this.dimension = dimension;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimension];
+        List<String> terms = analyzer.analyze(text);
+        String previous = null;
+        for (String term : terms) {
+            add(vector, term, 1.0f);
+            if (previous != null) {
+                add(vector, previous + ' ' + term, 0.5f);
+            }
+            previous = term;
+        }
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimension; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    private void add(float[] vector, String feature, float weight) {
+        long hash = fnv1a(feature);
+        int bucket = (int) Long.remainderUnsigned(hash, dimension);
+        // Use an independent hash bit for the sign so collisions tend to cancel out
+        vector[bucket] += (hash >>> 63) == 0 ? weight : -weight;
+    }
+
+    private static long fnv1a(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
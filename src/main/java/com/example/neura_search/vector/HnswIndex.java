@@ -0,0 +1,400 @@
+package com.example.neura_search.vector;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarchical navigable small world graph over the vectors in a {@link VectorStorage}.
+ * Similarity is inner product, so vectors are expected to be unit length.
+ * Inserts take the write lock; searches share the read lock.
+ */
+public class HnswIndex {
+    private static final int GRAPH_MAGIC = 0x484E5357; // "HNSW"
+
+    public record Result(int node, float score) {
+    }
+
+    private final VectorStorage vectors;
+    private final int m;
+    private final int maxConnections0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // neighbors[node][level][0] is the neighbor count, followed by node ids
+    private int[][][] neighbors = new int[1024][][];
+    private int size;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswIndex(VectorStorage vectors, int m, int efConstruction) {
+        this.vectors = vectors;
+        this.m = m;
+        this.maxConnections0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores {@code vector} as the next node and links it into the graph.
+     */
+    public int add(float[] vector) throws IOException {
+        lock.writeLock().lock();
+        try {
+            int node = size;
+            vectors.set(node, vector);
+            link(node, vector);
+            size++;
+            return node;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code k} accepted nodes closest to {@code query}. The filter is applied
+     * while the bottom layer is searched: rejected nodes are still expanded, so the search
+     * walks through them, but only accepted nodes take one of the {@code ef} result slots.
+     * With a selective filter the search therefore visits more of the graph instead of
+     * returning fewer than {@code k} hits.
+     */
+    public List<Result> search(float[] query, int k, int ef, IntPredicate accept) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return List.of();
+            }
+            int current = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                current = greedyClosest(query, current, level);
+            }
+            List<Result> results = searchLayer(query, current, Math.max(ef, k), 0, accept);
+            return results.size() > k ? results.subList(0, k) : results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scores each of {@code nodes} against {@code query} and returns the {@code k} closest.
+     * For a filter that admits only a handful of nodes this is far cheaper than
+     * {@link #search}, which would walk past every rejected node to fill its result slots.
+     * Nodes not yet linked into the graph are skipped.
+     */
+    public List<Result> searchExact(float[] query, int k, int[] nodes) {
+        Comparator<Result> byScore = Comparator.comparingDouble(Result::score);
+        PriorityQueue<Result> found = new PriorityQueue<>(byScore);
+        lock.readLock().lock();
+        try {
+            for (int node : nodes) {
+                if (node >= size) {
+                    continue;
+                }
+                found.add(new Result(node, vectors.dot(node, query)));
+                if (found.size() > k) {
+                    found.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Result> results = new ArrayList<>(found);
+        results.sort(byScore.reversed());
+        return results;
+    }
+
+    private void link(int node, float[] vector) {
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        if (node == neighbors.length) {
+            neighbors = Arrays.copyOf(neighbors, node * 2);
+        }
+        int[][] levels = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            levels[l] = new int[(l == 0 ? maxConnections0 : m) + 1];
+        }
+        neighbors[node] = levels;
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Result> candidates = searchLayer(vector, current, efConstruction, l, null);
+            int[] selected = selectNeighbors(candidates, m);
+            int[] own = neighbors[node][l];
+            for (int neighbor : selected) {
+                own[++own[0]] = neighbor;
+                connect(neighbor, node, l);
+            }
+            current = candidates.get(0).node();
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * Adds {@code node} to the adjacency list of {@code target}, pruning with the
+     * selection heuristic when the list is full.
+     */
+    private void connect(int target, int node, int level) {
+        int[] list = neighbors[target][level];
+        int capacity = list.length - 1;
+        if (list[0] < capacity) {
+            list[++list[0]] = node;
+            return;
+        }
+        float[] base = vectors.get(target);
+        List<Result> candidates = new ArrayList<>(capacity + 1);
+        for (int i = 1; i <= list[0]; i++) {
+            candidates.add(new Result(list[i], vectors.dot(list[i], base)));
+        }
+        candidates.add(new Result(node, vectors.dot(node, base)));
+        candidates.sort(Comparator.comparingDouble(Result::score).reversed());
+        int[] selected = selectNeighbors(candidates, capacity);
+        list[0] = selected.length;
+        System.arraycopy(selected, 0, list, 1, selected.length);
+    }
+
+    /**
+     * HNSW neighbor heuristic: keep a candidate only if it is closer to the base
+     * than to any neighbor already kept, then top up with the closest leftovers.
+     * {@code candidates} must be sorted by descending score.
+     */
+    private int[] selectNeighbors(List<Result> candidates, int max) {
+        int[] selected = new int[Math.min(max, candidates.size())];
+        boolean[] taken = new boolean[candidates.size()];
+        int count = 0;
+        for (int i = 0; i < candidates.size() && count < max; i++) {
+            Result candidate = candidates.get(i);
+            float[] vector = vectors.get(candidate.node());
+            boolean diverse = true;
+            for (int j = 0; j < count; j++) {
+                if (vectors.dot(selected[j], vector) > candidate.score()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count++] = candidate.node();
+                taken[i] = true;
+            }
+        }
+        for (int i = 0; i < candidates.size() && count < selected.length; i++) {
+            if (!taken[i]) {
+                selected[count++] = candidates.get(i).node();
+            }
+        }
+        return selected;
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float best = vectors.dot(current, query);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] list = neighbors[current][level];
+            for (int i = 1; i <= list[0]; i++) {
+                float score = vectors.dot(list[i], query);
+                if (score > best) {
+                    best = score;
+                    current = list[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search of one layer; returns up to {@code ef} nodes by descending score,
+     * only ones {@code accept} admits unless it is null. Rejected nodes are expanded like
+     * any other but never enter the result heap, so they do not end the search early.
+     */
+    private List<Result> searchLayer(float[] query, int entry, int ef, int level, IntPredicate accept) {
+        Comparator<Result> byScore = Comparator.comparingDouble(Result::score);
+        PriorityQueue<Result> candidates = new PriorityQueue<>(byScore.reversed());
+        PriorityQueue<Result> found = new PriorityQueue<>(byScore);
+        VisitedSet visited = new VisitedSet();
+
+        Result start = new Result(entry, vectors.dot(entry, query));
+        candidates.add(start);
+        if (accept == null || accept.test(entry)) {
+            found.add(start);
+        }
+        visited.add(entry);
+
+        while (!candidates.isEmpty()) {
+            Result closest = candidates.poll();
+            if (found.size() >= ef && closest.score() < found.peek().score()) {
+                break;
+            }
+            int[][] levels = neighbors[closest.node()];
+            if (level >= levels.length) {
+                continue;
+            }
+            int[] list = levels[level];
+            for (int i = 1; i <= list[0]; i++) {
+                int neighbor = list[i];
+                if (!visited.add(neighbor)) {
+                    continue;
+                }
+                float score = vectors.dot(neighbor, query);
+                if (found.size() < ef || score > found.peek().score()) {
+                    Result result = new Result(neighbor, score);
+                    candidates.add(result);
+                    if (accept == null || accept.test(neighbor)) {
+                        found.add(result);
+                        if (found.size() > ef) {
+                            found.poll();
+                        }
+                    }
+                }
+            }
+        }
+        List<Result> results = new ArrayList<>(found);
+        results.sort(byScore.reversed());
+        return results;
+    }
+
+    public void save(Path file) throws IOException {
+        lock.readLock().lock();
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(GRAPH_MAGIC);
+                out.writeInt(vectors.dimension());
+                out.writeInt(m);
+                out.writeInt(size);
+                out.writeInt(entryPoint);
+                out.writeInt(maxLevel);
+                for (int node = 0; node < size; node++) {
+                    int[][] levels = neighbors[node];
+                    out.writeByte(levels.length);
+                    for (int[] list : levels) {
+                        out.writeShort(list[0]);
+                        for (int i = 1; i <= list[0]; i++) {
+                            out.writeInt(list[i]);
+                        }
+                    }
+                }
+            }
+            vectors.force();
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Restores the graph written by {@link #save}. Returns false if the file does not
+     * match this index's dimension and M, in which case the index stays empty.
+     */
+    public boolean load(Path file) throws IOException {
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != GRAPH_MAGIC || in.readInt() != vectors.dimension() || in.readInt() != m) {
+                return false;
+            }
+            int count = in.readInt();
+            int entry = in.readInt();
+            int top = in.readInt();
+            int[][][] loaded = new int[Math.max(1024, count)][][];
+            for (int node = 0; node < count; node++) {
+                int levelCount = in.readUnsignedByte();
+                int[][] levels = new int[levelCount][];
+                for (int l = 0; l < levelCount; l++) {
+                    int[] list = new int[(l == 0 ? maxConnections0 : m) + 1];
+                    list[0] = in.readUnsignedShort();
+                    for (int i = 1; i <= list[0]; i++) {
+                        list[i] = in.readInt();
+                    }
+                    levels[l] = list;
+                }
+                loaded[node] = levels;
+            }
+            vectors.ensureCapacity(count);
+            neighbors = loaded;
+            size = count;
+            entryPoint = entry;
+            maxLevel = top;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Open-addressing int set; cheaper than a HashSet of boxed ids for one search.
+     */
+    private static final class VisitedSet {
+        private int[] slots = new int[256];
+        private int count;
+
+        VisitedSet() {
+            Arrays.fill(slots, -1);
+        }
+
+        boolean add(int value) {
+            if (count * 2 >= slots.length) {
+                grow();
+            }
+            int mask = slots.length - 1;
+            int i = (value * 0x9E3779B9) & mask;
+            while (slots[i] != -1) {
+                if (slots[i] == value) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            slots[i] = value;
+            count++;
+            return true;
+        }
+
+        private void grow() {
+            int[] old = slots;
+            slots = new int[old.length * 2];
+            Arrays.fill(slots, -1);
+            count = 0;
+            for (int value : old) {
+                if (value != -1) {
+                    add(value);
+                }
+            }
+        }
+    }
+}
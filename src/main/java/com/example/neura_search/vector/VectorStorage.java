@@ -0,0 +1,90 @@
+package com.example.neura_search.vector;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Off-heap float32 vector array backed by a memory-mapped file. The file is mapped
+ * in fixed-size blocks that are added as the array grows, so vectors persist
+ * without an explicit flush and never occupy Java heap.
+ */
+public class VectorStorage implements Closeable {
+    private static final int VECTORS_PER_BLOCK = 16384;
+
+    private final int dimension;
+    private final FileChannel channel;
+    private final List<FloatBuffer> blocks = new ArrayList<>();
+    private final List<MappedByteBuffer> mappings = new ArrayList<>();
+
+    public VectorStorage(Path file, int dimension) throws IOException {
+        this.dimension = dimension;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public void set(int node, float[] vector) throws IOException {
+        FloatBuffer block = block(node / VECTORS_PER_BLOCK);
+        block.put((node % VECTORS_PER_BLOCK) * dimension, vector);
+    }
+
+    public float[] get(int node) {
+        float[] vector = new float[dimension];
+        blocks.get(node / VECTORS_PER_BLOCK).get((node % VECTORS_PER_BLOCK) * dimension, vector);
+        return vector;
+    }
+
+    public float dot(int node, float[] query) {
+        FloatBuffer block = blocks.get(node / VECTORS_PER_BLOCK);
+        int base = (node % VECTORS_PER_BLOCK) * dimension;
+        float sum = 0;
+        for (int i = 0; i < dimension; i++) {
+            sum += block.get(base + i) * query[i];
+        }
+        return sum;
+    }
+
+    public void force() {
+        for (MappedByteBuffer mapping : mappings) {
+            mapping.force();
+        }
+    }
+
+    private FloatBuffer block(int index) throws IOException {
+        while (blocks.size() <= index) {
+            long blockBytes = (long) VECTORS_PER_BLOCK * dimension * Float.BYTES;
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, blocks.size() * blockBytes, blockBytes);
+            mapping.order(ByteOrder.LITTLE_ENDIAN);
+            mappings.add(mapping);
+            blocks.add(mapping.asFloatBuffer());
+        }
+        return blocks.get(index);
+    }
+
+    /**
+     * Maps every block needed to address {@code count} existing vectors.
+     */
+    public void ensureCapacity(int count) throws IOException {
+        if (count > 0) {
+            block((count - 1) / VECTORS_PER_BLOCK);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        blocks.clear();
+        mappings.clear();
+        channel.close();
+    }
+}
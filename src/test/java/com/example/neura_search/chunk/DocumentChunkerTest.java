@@ -0,0 +1,62 @@
+package com.example.neura_search.chunk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentChunkerTest {
+
+	@Test
+	void proseChunksOverlapAndPointAtTheirBytes() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 40; i++) {
+			text.append("Sentence ").append(i).append(" talks about naïve café résumés. ");
+			if (i % 10 == 9) {
+				text.append("\n\n");
+			}
+		}
+		byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+
+		List<TextChunk> chunks = chunk(text.toString(), DocumentChunker.Mode.PROSE, new DocumentChunker(30, 8, 50));
+
+		assertThat(chunks).hasSizeGreaterThan(5);
+		for (int i = 0; i < chunks.size(); i++) {
+			TextChunk chunk = chunks.get(i);
+			assertThat(chunk.ordinal()).isEqualTo(i);
+			String fromBytes = new String(Arrays.copyOfRange(body, (int) chunk.byteStart(), (int) chunk.byteEnd()),
+					StandardCharsets.UTF_8);
+			assertThat(fromBytes).isEqualTo(chunk.text());
+			if (i > 0) {
+				assertThat(chunk.byteStart()).isLessThan(chunks.get(i - 1).byteEnd());
+			}
+		}
+		assertThat(chunks.get(chunks.size() - 1).byteEnd()).isEqualTo(body.length);
+	}
+
+	@Test
+	void rowChunksNeverSpanSheets() throws IOException {
+		String sheet = "a\tb\t\n".repeat(5);
+		List<TextChunk> chunks = chunk(sheet + "\f" + sheet, DocumentChunker.Mode.ROWS, new DocumentChunker(200, 40, 3));
+
+		assertThat(chunks).extracting(TextChunk::text)
+				.containsExactly("a\tb\t\n".repeat(3), "a\tb\t\n".repeat(2), "a\tb\t\n".repeat(3), "a\tb\t\n".repeat(2));
+		assertThat(chunks.get(2).byteStart()).isEqualTo(sheet.length() + 1);
+	}
+
+	private static List<TextChunk> chunk(String text, DocumentChunker.Mode mode, DocumentChunker chunker)
+			throws IOException {
+		List<TextChunk> chunks = new ArrayList<>();
+		chunker.chunk(7, new StringReader(text), mode, 4, batch -> {
+			assertThat(batch).hasSizeLessThanOrEqualTo(4);
+			chunks.addAll(batch);
+		});
+		return chunks;
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.neura_search.extraction;
+
+import org.apache.tika.metadata.Metadata;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvExtractorTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void quotedFieldsStayInOneCell() throws IOException {
+		String csv = "name,notes\r\n"
+				+ "\"Smith, Jane\",\"said \"\"hi\"\"\nthen left\"\r\n"
+				+ "\r\n"
+				+ "Doe,\tplain\n";
+
+		assertThat(extract(csv)).isEqualTo("name\tnotes\t\n"
+				+ "Smith, Jane\tsaid \"hi\" then left\t\n"
+				+ "Doe\t plain\t\n");
+	}
+
+	@Test
+	void semicolonDelimiterIsSniffedFromTheHeader() throws IOException {
+		assertThat(extract("a;b;c\n1,5;2;3")).isEqualTo("a\tb\tc\t\n1,5\t2\t3\t\n");
+	}
+
+	@Test
+	void detectorRoutesCsvToTheRegistry() throws IOException {
+		Path file = Files.writeString(dir.resolve("upload.bin"), "a,b\n1,2\n", StandardCharsets.UTF_8);
+		ExtractorRegistry registry = new ExtractorRegistry(List.of(new CsvExtractor()));
+
+		String type = new ContentTypeDetector().detect(file, "data.csv", "application/octet-stream");
+
+		assertThat(type).startsWith("text/csv");
+		assertThat(registry.isTabular(type)).isTrue();
+	}
+
+	private String extract(String csv) throws IOException {
+		Path file = Files.writeString(dir.resolve("input.csv"), csv, StandardCharsets.UTF_8);
+		StringWriter sink = new StringWriter();
+		new CsvExtractor().extract(file, sink, new Metadata());
+		return sink.toString();
+	}
+}
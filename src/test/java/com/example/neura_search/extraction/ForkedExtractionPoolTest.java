@@ -0,0 +1,65 @@
+package com.example.neura_search.extraction;
+
+import org.apache.tika.metadata.Metadata;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ForkedExtractionPoolTest {
+
+	@TempDir
+	Path dir;
+
+	private ForkedExtractionPool pool;
+
+	@AfterEach
+	void close() {
+		pool.close();
+	}
+
+	@Test
+	void extractsInAWorkerAndReportsMetadata() throws Exception {
+		pool = new ForkedExtractionPool(true, 1, Duration.ofMinutes(1), "256m", 1_000, 10, 1, 64, 16);
+		Path source = Files.writeString(dir.resolve("rows.csv"), "a;b\n1;2\n", StandardCharsets.UTF_8);
+		Path target = dir.resolve("rows.txt");
+		Metadata metadata = new Metadata();
+
+		long characters = pool.extract(source, "text/csv", target, metadata);
+
+		assertThat(Files.readString(target)).isEqualTo("a\tb\t\n1\t2\t\n");
+		assertThat(characters).isEqualTo(10);
+		assertThat(metadata.get(Metadata.CONTENT_ENCODING)).isNotBlank();
+	}
+
+	@Test
+	void oversizedOutputFailsOnlyThatDocument() throws Exception {
+		pool = new ForkedExtractionPool(true, 1, Duration.ofMinutes(1), "256m", 100, 10, 1, 64, 16);
+		Path large = Files.writeString(dir.resolve("large.csv"), "x,y\n".repeat(100), StandardCharsets.UTF_8);
+		Path small = Files.writeString(dir.resolve("small.csv"), "x,y\n", StandardCharsets.UTF_8);
+
+		assertThatThrownBy(() -> pool.extract(large, "text/csv", dir.resolve("large.txt"), new Metadata()))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("exceeds 100 characters");
+		assertThat(pool.extract(small, "text/csv", dir.resolve("small.txt"), new Metadata())).isEqualTo(5);
+	}
+
+	@Test
+	void timeoutKillsTheWorker() throws Exception {
+		pool = new ForkedExtractionPool(true, 1, Duration.ofMillis(1), "256m", 1_000, 10, 1, 64, 16);
+		Path source = Files.writeString(dir.resolve("rows.csv"), "a,b\n", StandardCharsets.UTF_8);
+
+		// The first request also pays for JVM startup, so it cannot finish within a millisecond
+		assertThatThrownBy(() -> pool.extract(source, "text/csv", dir.resolve("rows.txt"), new Metadata()))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("timed out");
+	}
+}
@@ -0,0 +1,69 @@
+package com.example.neura_search.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+	@Test
+	void removedEntriesLeaveResultsAndStatistics() {
+		InvertedIndex index = new InvertedIndex();
+		index.add(1, Map.of("apple", 2, "pear", 1), 3);
+		index.add(2, Map.of("apple", 1), 1);
+		index.add(3, Map.of("pear", 3, "plum", 1), 4);
+		index.add(4, Map.of("apple", 1, "plum", 2), 3);
+
+		assertThat(index.removeIf(id -> id == 2 || id == 3)).isEqualTo(2);
+		assertThat(index.size()).isEqualTo(2);
+		List<String> query = List.of("apple", "pear", "plum");
+		// Skipped at once, before their postings are purged
+		assertThat(index.search(query, 10, id -> true)).extracting(InvertedIndex.Hit::docId)
+				.containsExactlyInAnyOrder(1L, 4L);
+
+		// After the purge, scores must match an index that never held the removed entries
+		assertThat(index.purge()).isTrue();
+		assertThat(index.purge()).isFalse();
+		InvertedIndex expected = new InvertedIndex();
+		expected.add(1, Map.of("apple", 2, "pear", 1), 3);
+		expected.add(4, Map.of("apple", 1, "plum", 2), 3);
+		assertThat(index.search(query, 10, id -> true))
+				.containsExactlyElementsOf(expected.search(query, 10, id -> true));
+
+		// Entries added after the purge are delta-encoded against the kept postings
+		index.add(5, Map.of("pear", 1), 1);
+		expected.add(5, Map.of("pear", 1), 1);
+		assertThat(index.search(query, 10, id -> true))
+				.containsExactlyElementsOf(expected.search(query, 10, id -> true));
+	}
+
+	@Test
+	void rangesAreRemovedAndOrdinalsReclaimedAcrossPurges() {
+		InvertedIndex index = new InvertedIndex();
+		InvertedIndex expected = new InvertedIndex();
+		for (int id = 0; id < 3000; id++) {
+			Map<String, Integer> terms = Map.of("term" + id % 7, 1 + id % 3, "common", 1);
+			index.add(id, terms, 2 + id % 5);
+			if (id < 1000 || id >= 2500) {
+				expected.add(id, terms, 2 + id % 5);
+			}
+		}
+
+		assertThat(index.removeRange(1000, 2000)).isEqualTo(1000);
+		assertThat(index.purge()).isTrue();
+		assertThat(index.removeRange(2000, 2500)).isEqualTo(500);
+		// Already gone
+		assertThat(index.removeRange(1500, 1600)).isZero();
+		assertThat(index.purge()).isTrue();
+		assertThat(index.size()).isEqualTo(1500);
+
+		index.add(3000, Map.of("term1", 2, "common", 1), 3);
+		expected.add(3000, Map.of("term1", 2, "common", 1), 3);
+		List<String> query = List.of("common", "term1", "term4");
+		assertThat(index.search(query, 50, id -> true))
+				.containsExactlyElementsOf(expected.search(query, 50, id -> true));
+	}
+}
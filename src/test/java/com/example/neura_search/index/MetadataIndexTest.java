@@ -0,0 +1,78 @@
+package com.example.neura_search.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetadataIndexTest {
+
+	private final MetadataIndex index = new MetadataIndex(List.of("type", "author"), List.of("size"));
+
+	@Test
+	void combinesEqualityAndRangeFiltersWithFacets() {
+		add(1, "application/pdf", "Ada", 100L);
+		add(2, "application/pdf", "Grace", 2_000L);
+		add(3, "text/csv", "ada", 50L);
+		add(4, "application/pdf", null, 700L);
+		add(5, "text/csv", "Linus", null);
+
+		MetadataIndex.Result result = index.query(new MetadataIndex.Query()
+				.equalTo("type", List.of("application/pdf", "TEXT/CSV"))
+				.between("size", 60, 1_000)
+				.facet("type")
+				.facet("author"));
+
+		assertThat(result.ids()).containsExactly(1L, 4L);
+		assertThat(result.total()).isEqualTo(2);
+		assertThat(result.facets().get("type")).containsExactly(new MetadataIndex.FacetCount("application/pdf", 2));
+		assertThat(result.facets().get("author")).containsExactly(new MetadataIndex.FacetCount("Ada", 1));
+
+		assertThat(index.query(new MetadataIndex.Query().equalTo("author", List.of("ADA"))).ids())
+				.containsExactly(1L, 3L);
+	}
+
+	@Test
+	void rangesSeeRowsAddedAndChangedAfterEarlierQueries() {
+		add(1, "text/csv", null, 10L);
+		add(2, "text/csv", null, 20L);
+		assertThat(index.query(new MetadataIndex.Query().between("size", 15, 25)).ids()).containsExactly(2L);
+
+		add(3, "text/csv", null, 18L);
+		add(2, "text/csv", null, 99L);
+		assertThat(index.query(new MetadataIndex.Query().between("size", 15, 25)).ids()).containsExactly(3L);
+		assertThat(index.query(new MetadataIndex.Query().between("size", 0, Long.MAX_VALUE)).ids())
+				.containsExactly(1L, 2L, 3L);
+	}
+
+	@Test
+	void pagesInIdOrder() {
+		for (int id = 1; id <= 5; id++) {
+			add(id, "text/csv", null, (long) id);
+		}
+
+		MetadataIndex.Result first = index.query(new MetadataIndex.Query().limit(2));
+		MetadataIndex.Result last = index.query(new MetadataIndex.Query().limit(2).after(4));
+
+		assertThat(first.ids()).containsExactly(1L, 2L);
+		assertThat(first.more()).isTrue();
+		assertThat(first.total()).isEqualTo(5);
+		assertThat(last.ids()).containsExactly(5L);
+		assertThat(last.more()).isFalse();
+		assertThatThrownBy(() -> index.query(new MetadataIndex.Query().facet("size")))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private void add(long docId, String type, String author, Long size) {
+		Map<String, String> strings = new HashMap<>();
+		strings.put("type", type);
+		strings.put("author", author);
+		Map<String, Long> numbers = new HashMap<>();
+		numbers.put("size", size);
+		index.put(docId, strings, numbers);
+	}
+}
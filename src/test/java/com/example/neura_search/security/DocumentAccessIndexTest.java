@@ -0,0 +1,152 @@
+package com.example.neura_search.security;
+
+import com.example.neura_search.store.StoredDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentAccessIndexTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void ownersGrantsAndRolesDecideVisibility() throws IOException {
+		DocumentAccessIndex access = open();
+		access.stored(document(1, "alice"));
+		access.stored(document(2, "bob"));
+		access.stored(document(3, "bob"));
+
+		access.grantUser(2, "alice");
+		access.grantRole(3, "ROLE_USER");
+
+		assertThat(access.readableBy(user("alice")).toArray()).containsExactly(1, 2, 3);
+		assertThat(access.readableBy(user("carol")).toArray()).containsExactly(3);
+		assertThat(access.readableBy(admin("root")).toArray()).containsExactly(1, 2, 3);
+		assertThat(access.canRead(1, admin("root"))).isTrue();
+
+		access.revokeUser(2, "alice");
+		assertThat(access.canRead(2, user("alice"))).isFalse();
+		assertThat(access.grants(3).roles()).containsExactly("ROLE_USER");
+		access.close();
+	}
+
+	@Test
+	void grantsSurviveReopen() throws IOException {
+		DocumentAccessIndex access = open();
+		access.grantUser(7, "carol");
+		access.grantRole(8, "ROLE_USER");
+		access.revokeRole(8, "ROLE_USER");
+		access.close();
+
+		DocumentAccessIndex reopened = open();
+		// Owners are not logged; the pipeline's catch-up hands them in again
+		assertThat(reopened.needs(document(7, "alice"))).isTrue();
+		reopened.stored(document(7, "alice"));
+		reopened.stored(document(8, "alice"));
+		assertThat(reopened.canRead(7, user("carol"))).isTrue();
+		assertThat(reopened.canRead(8, user("carol"))).isFalse();
+		reopened.close();
+	}
+
+	@Test
+	void deletedDocumentsLeaveEveryReadableSet() throws IOException {
+		DocumentAccessIndex access = open();
+		access.stored(document(1, "alice"));
+		access.stored(document(2, "alice"));
+		access.grantUser(2, "bob");
+		access.copyGrants(2, 3);
+		access.stored(document(3, "alice"));
+		access.removed(2);
+
+		assertThat(access.readableBy(user("bob")).toArray()).containsExactly(3);
+		assertThat(access.readableBy(admin("root")).toArray()).containsExactly(1, 3);
+		assertThat(access.grants(3).users()).containsExactly("bob");
+		access.close();
+
+		// The grant on 2 is replayed but masked until the document is stored again, which it never is
+		DocumentAccessIndex reopened = open();
+		reopened.stored(document(1, "alice"));
+		reopened.stored(document(3, "alice"));
+		assertThat(reopened.readableBy(user("bob")).toArray()).containsExactly(3);
+		reopened.close();
+	}
+
+	@Test
+	void canReadChecksOwnerGrantsAndRolesOfLiveDocuments() throws IOException {
+		DocumentAccessIndex access = open();
+		access.stored(document(1, "alice"));
+		access.stored(document(2, "bob"));
+		access.grantRole(2, "ROLE_USER");
+
+		assertThat(access.canRead(1, user("alice"))).isTrue();
+		assertThat(access.canRead(1, user("bob"))).isFalse();
+		assertThat(access.canRead(2, user("carol"))).isTrue();
+		assertThat(access.canRead(1, admin("root"))).isTrue();
+		// Grants on documents not in the store never make them readable, even for admins
+		access.grantUser(9, "carol");
+		assertThat(access.canRead(9, user("carol"))).isFalse();
+		assertThat(access.canRead(9, admin("root"))).isFalse();
+
+		access.removed(1);
+		assertThat(access.canRead(1, user("alice"))).isFalse();
+		access.close();
+	}
+
+	@Test
+	void reopeningCompactsRevokedAndDeletedGrants() throws IOException {
+		DocumentAccessIndex access = open();
+		access.stored(document(1, "alice"));
+		access.stored(document(2, "alice"));
+		for (int i = 0; i < 10; i++) {
+			access.grantUser(1, "bob");
+			access.revokeUser(1, "bob");
+		}
+		access.grantUser(1, "carol");
+		access.grantRole(2, "ROLE_USER");
+		access.removed(2);
+		access.close();
+		long before = Files.size(dir.resolve("acl.bin"));
+
+		DocumentAccessIndex reopened = open();
+		assertThat(Files.size(dir.resolve("acl.bin"))).isLessThan(before);
+		reopened.stored(document(1, "alice"));
+		reopened.stored(document(2, "alice"));
+		assertThat(reopened.grants(1).users()).containsExactly("carol");
+		assertThat(reopened.grants(2).roles()).isEmpty();
+		reopened.close();
+
+		// The compacted log replays to the same grants
+		DocumentAccessIndex again = open();
+		assertThat(again.grants(1).users()).containsExactly("carol");
+		again.close();
+	}
+
+	private DocumentAccessIndex open() throws IOException {
+		DocumentAccessIndex access = new DocumentAccessIndex();
+		ReflectionTestUtils.setField(access, "storeDir", dir.toString());
+		access.open();
+		return access;
+	}
+
+	private static StoredDocument document(long id, String owner) {
+		return new StoredDocument(id, owner, "text/plain", 1, 0, 0, 0);
+	}
+
+	private static Authentication user(String name) {
+		return new UsernamePasswordAuthenticationToken(name, null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+	}
+
+	private static Authentication admin(String name) {
+		return new UsernamePasswordAuthenticationToken(name, null, AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+	}
+}
@@ -0,0 +1,206 @@
+package com.example.neura_search.service;
+
+import com.example.neura_search.chunk.DocumentChunker;
+import com.example.neura_search.dto.BatchItemResult;
+import com.example.neura_search.extraction.ContentTypeDetector;
+import com.example.neura_search.extraction.CsvExtractor;
+import com.example.neura_search.extraction.ExtractorRegistry;
+import com.example.neura_search.extraction.ForkedExtractionPool;
+import com.example.neura_search.security.DocumentAccessIndex;
+import com.example.neura_search.store.DocumentStore;
+import com.example.neura_search.store.FingerprintIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchIngestionServiceTest {
+
+	@TempDir
+	Path dir;
+
+	private DocumentStore documentStore;
+	private FingerprintIndex fingerprintIndex;
+	private DocumentAccessIndex documentAccess;
+	private ExecutorService parseExecutor;
+	private BatchIngestionService service;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		documentStore = new DocumentStore();
+		ReflectionTestUtils.setField(documentStore, "storeDir", dir.resolve("store").toString());
+		ReflectionTestUtils.setField(documentStore, "segmentMaxBytes", 1024L * 1024);
+		ReflectionTestUtils.setField(documentStore, "keepOriginals", true);
+		documentStore.open();
+		fingerprintIndex = new FingerprintIndex(meterRegistry);
+		ReflectionTestUtils.setField(fingerprintIndex, "storeDir", dir.resolve("store").toString());
+		fingerprintIndex.open();
+		documentAccess = new DocumentAccessIndex();
+		ReflectionTestUtils.setField(documentAccess, "storeDir", dir.resolve("store").toString());
+		documentAccess.open();
+
+		ExtractorRegistry extractors = new ExtractorRegistry(List.of(new CsvExtractor()));
+		IndexingPipeline pipeline = new IndexingPipeline(documentStore, new DocumentChunker(200, 40, 50), extractors,
+				List.of(documentAccess));
+		ReflectionTestUtils.setField(pipeline, "batchSize", 64);
+		ForkedExtractionPool sandbox = new ForkedExtractionPool(false, 1, Duration.ofMinutes(1), "256m", 1_000, 10, 1, 64, 16);
+		parseExecutor = Executors.newFixedThreadPool(2);
+		FileProcessingService fileProcessingService = new FileProcessingService(extractors, sandbox, documentStore,
+				pipeline, parseExecutor, meterRegistry);
+		ReflectionTestUtils.setField(fileProcessingService, "spoolDir", dir.resolve("spool").toString());
+
+		service = new BatchIngestionService(new ContentTypeDetector(), fileProcessingService, documentStore,
+				fingerprintIndex, pipeline, meterRegistry, 1);
+		ReflectionTestUtils.setField(service, "spoolDir", dir.resolve("spool").toString());
+		ReflectionTestUtils.setField(service, "queueCapacity", 2);
+		ReflectionTestUtils.setField(service, "extractWorkers", 2);
+		ReflectionTestUtils.setField(service, "writeBatch", 4);
+		ReflectionTestUtils.setField(service, "maxArchiveEntries", 10);
+		ReflectionTestUtils.setField(service, "maxArchiveBytes", 1024L * 1024);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		parseExecutor.shutdownNow();
+		documentAccess.close();
+		fingerprintIndex.close();
+		documentStore.close();
+	}
+
+	@Test
+	void reportsEveryFileAndStoresEachContentOnce() throws IOException {
+		List<MockMultipartFile> files = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			files.add(csv("part-" + i + ".csv", "id,value\n" + i + ",part " + i + "\n"));
+		}
+		files.add(new MockMultipartFile("files", "archive.zip", "application/zip", zip(
+				"inner/a.csv", "id,value\n100,from the archive\n",
+				"inner/copy.csv", "id,value\n0,part 0\n",
+				"inner/image.bin", "\u0000\u0001\u0002binary")));
+
+		List<BatchItemResult> results = new ArrayList<>();
+		service.reserve();
+		service.ingest(new ArrayList<>(files), "alice", results::add);
+
+		assertThat(results).extracting(BatchItemResult::getFileName).containsExactlyInAnyOrder(
+				"part-0.csv", "part-1.csv", "part-2.csv", "part-3.csv", "part-4.csv", "part-5.csv",
+				"archive.zip!/inner/a.csv", "archive.zip!/inner/copy.csv", "archive.zip!/inner/image.bin");
+		assertThat(results).filteredOn(result -> result.getStatus().equals("STORED")).hasSize(7);
+		assertThat(status(results, "archive.zip!/inner/image.bin")).isEqualTo("UNSUPPORTED");
+		BatchItemResult copy = result(results, "archive.zip!/inner/copy.csv");
+		assertThat(copy.getStatus()).isEqualTo("DEDUPLICATED");
+		assertThat(copy.getDocumentId()).isEqualTo(result(results, "part-0.csv").getDocumentId());
+		assertThat(results.indexOf(copy)).isGreaterThan(results.indexOf(result(results, "part-0.csv")));
+
+		assertThat(documentStore.documents()).hasSize(7);
+		long stored = result(results, "archive.zip!/inner/a.csv").getDocumentId();
+		assertThat(documentStore.readText(stored)).isEqualTo("id\tvalue\t\n100\tfrom the archive\t\n");
+		assertThat(documentStore.original(stored)).isPresent();
+		assertThat(documentStore.attributes(stored)).containsEntry("size", "30");
+		try (Stream<Path> leftovers = Files.list(dir.resolve("spool"))) {
+			assertThat(leftovers).isEmpty();
+		}
+	}
+
+	@Test
+	void deduplicatesOnlyAgainstTheUploadersOwnDocuments() throws IOException {
+		service.reserve();
+		List<BatchItemResult> first = new ArrayList<>();
+		service.ingest(new ArrayList<>(List.of(csv("report.csv", "id\n1\n"))), "alice", first::add);
+		long aliceDocument = first.get(0).getDocumentId();
+
+		service.reserve();
+		List<BatchItemResult> second = new ArrayList<>();
+		service.ingest(new ArrayList<>(List.of(csv("copy.csv", "id\n1\n"))), "bob", second::add);
+
+		// Bob learns nothing about Alice's document and gets his own
+		assertThat(second.get(0).getStatus()).isEqualTo("STORED");
+		long bobDocument = second.get(0).getDocumentId();
+		assertThat(bobDocument).isNotEqualTo(aliceDocument);
+		assertThat(documentAccess.canRead(aliceDocument, user("bob"))).isFalse();
+		assertThat(documentAccess.canRead(bobDocument, user("bob"))).isTrue();
+
+		service.reserve();
+		List<BatchItemResult> third = new ArrayList<>();
+		service.ingest(new ArrayList<>(List.of(csv("again.csv", "id\n1\n"))), "bob", third::add);
+		assertThat(third.get(0).getStatus()).isEqualTo("DEDUPLICATED");
+		assertThat(third.get(0).getDocumentId()).isEqualTo(bobDocument);
+	}
+
+	@Test
+	void stopsAndCleansUpWhenTheClientGoesAway() throws IOException {
+		List<MockMultipartFile> files = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			files.add(csv("part-" + i + ".csv", "id\n" + i + "\n"));
+		}
+
+		service.reserve();
+		try {
+			service.ingest(new ArrayList<>(files), "alice", result -> {
+				throw new IOException("Broken pipe");
+			});
+		} catch (IOException expected) {
+			// reported by the sink
+		}
+
+		try (Stream<Path> leftovers = Files.list(dir.resolve("spool"))) {
+			assertThat(leftovers).isEmpty();
+		}
+		// The slot was given back
+		service.reserve();
+	}
+
+	private static UsernamePasswordAuthenticationToken user(String name) {
+		return new UsernamePasswordAuthenticationToken(name, null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+	}
+
+	private static MockMultipartFile csv(String name, String content) {
+		return new MockMultipartFile("files", name, "text/csv", content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static byte[] zip(String... namesAndContents) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+			for (int i = 0; i < namesAndContents.length; i += 2) {
+				zip.putNextEntry(new ZipEntry(namesAndContents[i]));
+				zip.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+				zip.closeEntry();
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	private static BatchItemResult result(List<BatchItemResult> results, String fileName) {
+		return results.stream()
+				.filter(result -> fileName.equals(result.getFileName()))
+				.min(Comparator.comparingInt(BatchItemResult::getIndex))
+				.orElseThrow();
+	}
+
+	private static String status(List<BatchItemResult> results, String fileName) {
+		return result(results, fileName).getStatus();
+	}
+}
@@ -0,0 +1,86 @@
+package com.example.neura_search.service;
+
+import com.example.neura_search.controller.AuthController;
+import com.example.neura_search.dto.AuthResponse;
+import com.example.neura_search.dto.RefreshRequest;
+import com.example.neura_search.model.RefreshToken;
+import com.example.neura_search.model.User;
+import com.example.neura_search.repository.RefreshTokenRepository;
+import com.example.neura_search.repository.UserRepository;
+import com.example.neura_search.security.JwtTokenProvider;
+import com.example.neura_search.security.UserStateCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+	private final RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final Map<String, RefreshToken> stored = new HashMap<>();
+	private final User user = new User("alice", "alice@example.com", "hashed");
+	private RefreshTokenService refreshTokenService;
+	private UserService userService;
+	private AuthController authController;
+
+	@BeforeEach
+	void setUp() {
+		user.setId(1L);
+		when(refreshTokenRepository.save(any())).thenAnswer(invocation -> {
+			RefreshToken token = invocation.getArgument(0);
+			stored.put(token.getTokenHash(), token);
+			return token;
+		});
+		when(refreshTokenRepository.findByTokenHash(anyString()))
+				.thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.<String>getArgument(0))));
+		when(refreshTokenRepository.consume(any())).thenReturn(1);
+		when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+
+		refreshTokenService = new RefreshTokenService(refreshTokenRepository, mock(JwtTokenProvider.class));
+		ReflectionTestUtils.setField(refreshTokenService, "refreshExpiration", Duration.ofDays(14));
+
+		userService = new UserService();
+		ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+		ReflectionTestUtils.setField(userService, "refreshTokenRepository", refreshTokenRepository);
+		ReflectionTestUtils.setField(userService, "userStateCache", mock(UserStateCache.class));
+
+		authController = new AuthController();
+		ReflectionTestUtils.setField(authController, "refreshTokenService", refreshTokenService);
+	}
+
+	@Test
+	void refreshTokensIssuedBeforeARevokeAreRejected() {
+		String issued = refreshTokenService.issue(user);
+		ResponseEntity<?> rotated = refresh(issued);
+		assertThat(rotated.getStatusCode()).isEqualTo(HttpStatus.OK);
+		String current = ((AuthResponse) rotated.getBody()).getRefreshToken();
+
+		userService.revokeTokens(1L);
+
+		verify(refreshTokenRepository).revokeAllOfUser(1L);
+		assertThat(refresh(current).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+		// Tokens issued after the revoke work again
+		assertThat(refresh(refreshTokenService.issue(user)).getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
+	private ResponseEntity<?> refresh(String token) {
+		RefreshRequest request = new RefreshRequest();
+		request.setRefreshToken(token);
+		return authController.refresh(request);
+	}
+}
@@ -0,0 +1,125 @@
+package com.example.neura_search.service;
+
+import com.example.neura_search.dto.UserImportResult;
+import com.example.neura_search.model.ERole;
+import com.example.neura_search.model.Role;
+import com.example.neura_search.model.User;
+import com.example.neura_search.repository.RoleRepository;
+import com.example.neura_search.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceTest {
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final ThreadPoolExecutor hashExecutor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+	private UserImportService service;
+
+	@BeforeEach
+	void setUp() {
+		RoleCache roleCache = new RoleCache(mock(RoleRepository.class));
+		roleCache.put(new Role(ERole.ROLE_USER));
+		roleCache.put(new Role(ERole.ROLE_ADMIN));
+		PasswordEncoder encoder = mock(PasswordEncoder.class);
+		when(encoder.encode(any())).thenAnswer(invocation -> "hashed:" + invocation.getArgument(0));
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+		service = new UserImportService(userRepository, roleCache, encoder, hashExecutor,
+				new TransactionTemplate(transactionManager), Validation.buildDefaultValidatorFactory().getValidator(),
+				new ObjectMapper());
+		ReflectionTestUtils.setField(service, "chunkSize", 2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		hashExecutor.shutdownNow();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void createsValidRowsAndReportsTheRest() throws IOException {
+		when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of("Taken"));
+		when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+		List<User> saved = new ArrayList<>();
+		when(userRepository.saveAll(any())).thenAnswer(invocation -> {
+			((Iterable<User>) invocation.getArgument(0)).forEach(saved::add);
+			return List.of();
+		});
+		String csv = "Username,Email,Password,Roles\n"
+				+ "alice,alice@example.com,\"pa,ss\"\"word\",admin;user\n"
+				+ "bob,bob@example.com,secret1,\n"
+				+ "ALICE,other@example.com,secret2,\n"
+				+ "taken,taken@example.com,secret3,\n"
+				+ "x,not-an-email,short,\n";
+
+		UserImportResult result = service.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+		assertThat(result.getCreated()).isEqualTo(2);
+		assertThat(result.getRejected()).isEqualTo(3);
+		assertThat(result.getRejections()).extracting(UserImportResult.Rejection::getRow).containsExactly(3L, 4L, 5L);
+		assertThat(result.getRejections().get(0).getReason()).isEqualTo("Duplicate username in import");
+		assertThat(result.getRejections().get(1).getReason()).isEqualTo("Username is already taken!");
+		assertThat(saved).extracting(User::getUsername).containsExactly("alice", "bob");
+		assertThat(saved.get(0).getPassword()).isEqualTo("hashed:pa,ss\"word");
+		assertThat(saved.get(0).getRoles()).extracting(Role::getName)
+				.containsExactlyInAnyOrder(ERole.ROLE_ADMIN, ERole.ROLE_USER);
+
+		// One existence query per chunk and kind, never one per row
+		ArgumentCaptor<List<String>> names = ArgumentCaptor.forClass(List.class);
+		verify(userRepository, times(2)).findExistingUsernames(names.capture());
+		assertThat(names.getAllValues()).containsExactly(List.of("alice", "bob"), List.of("taken"));
+	}
+
+	@Test
+	void ndjsonRowsThatDoNotParseAreRejected() throws IOException {
+		when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of());
+		when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+		String ndjson = "{\"username\":\"carol\",\"email\":\"carol@example.com\",\"password\":\"secret1\"}\n"
+				+ "\n"
+				+ "{not json\n";
+
+		UserImportResult result = service.importNdjson(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+		assertThat(result.getCreated()).isEqualTo(1);
+		assertThat(result.getRejections()).singleElement()
+				.satisfies(rejection -> assertThat(rejection.getReason()).isEqualTo("Malformed JSON"));
+	}
+
+	@Test
+	void csvRecordsMayHoldQuotedLineBreaks() throws IOException {
+		BufferedReader reader = new BufferedReader(new StringReader("a,\"b\r\nc\",\r\n\r\nd\n"));
+
+		assertThat(UserImportService.readCsvRecord(reader)).containsExactly("a", "b\r\nc", "");
+		assertThat(UserImportService.readCsvRecord(reader)).containsExactly("d");
+		assertThat(UserImportService.readCsvRecord(reader)).isNull();
+	}
+}
@@ -0,0 +1,183 @@
+package com.example.neura_search.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentStoreTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void appendsRollSegmentsAndSurviveReopen() throws IOException {
+		DocumentStore store = openStore();
+		StoredDocument first = store.append("alice", "application/pdf", text("first document"));
+		StoredDocument second = store.append("bob", "application/vnd.ms-excel", text("second\tdocument\n"));
+		StoredDocument third = store.append("alice", "application/pdf", text("ünïcödé third"));
+
+		assertThat(second.segmentId()).isGreaterThan(first.segmentId());
+		assertThat(store.readText(third.id())).isEqualTo("ünïcödé third");
+		store.close();
+
+		DocumentStore reopened = openStore();
+		assertThat(reopened.documents()).hasSize(3);
+		assertThat(reopened.readText(first.id())).isEqualTo("first document");
+		assertThat(reopened.get(second.id())).get().extracting(StoredDocument::owner).isEqualTo("bob");
+		assertThat(reopened.append("carol", "application/pdf", text("fourth")).id()).isEqualTo(third.id() + 1);
+		reopened.close();
+	}
+
+	@Test
+	void readsRecordsAppendedAfterTheSegmentWasMapped() throws IOException {
+		DocumentStore store = openStore();
+		ReflectionTestUtils.setField(store, "segmentMaxBytes", 1L << 20);
+		List<StoredDocument> documents = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			documents.add(store.append("alice", "text/plain", text("document " + i)));
+			// Each read maps the new tail; past the region limit the segment is mapped whole again
+			assertThat(store.readText(documents.get(i).id())).isEqualTo("document " + i);
+		}
+		assertThat(documents).extracting(StoredDocument::segmentId).containsOnly(documents.get(0).segmentId());
+		for (int i = 0; i < documents.size(); i++) {
+			assertThat(store.readText(documents.get(i).id())).isEqualTo("document " + i);
+		}
+		store.close();
+	}
+
+	@Test
+	void keepsAttributesInTheRecordHeader() throws IOException {
+		DocumentStore store = openStore();
+		Map<String, String> attributes = new LinkedHashMap<>();
+		attributes.put("title", "Quarterly report");
+		attributes.put("author", "Zoë");
+		StoredDocument described = store.append("alice", "application/pdf", attributes, text("body"));
+		StoredDocument plain = store.append("alice", "text/plain", text("no attributes"));
+		store.close();
+
+		DocumentStore reopened = openStore();
+		assertThat(reopened.attributes(described.id())).containsExactlyEntriesOf(attributes);
+		assertThat(reopened.attributes(plain.id())).isEmpty();
+		assertThat(reopened.readText(described.id())).isEqualTo("body");
+		reopened.close();
+	}
+
+	@Test
+	void truncatesTornRecordAtTail() throws IOException {
+		DocumentStore store = openStore();
+		store.append("alice", "application/pdf", text("kept"));
+		StoredDocument torn = store.append("alice", "application/pdf", text("this record gets cut short"));
+		store.close();
+
+		Path segment = dir.resolve(String.format("segment-%06d.seg", torn.segmentId()));
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.truncate(torn.bodyOffset() + 4);
+		}
+
+		DocumentStore reopened = openStore();
+		assertThat(reopened.get(torn.id())).isEmpty();
+		assertThat(reopened.documents()).hasSize(1);
+		reopened.close();
+	}
+
+	@Test
+	void deletesSurviveReopenWithoutReusingIds() throws IOException {
+		DocumentStore store = openStore();
+		ReflectionTestUtils.setField(store, "keepOriginals", true);
+		StoredDocument kept = store.append("alice", "text/plain", text("kept"));
+		StoredDocument deleted = store.append("alice", "text/plain", text("deleted"));
+		store.keepOriginal(deleted.id(), text("original"));
+
+		assertThat(store.delete(deleted.id())).isTrue();
+		assertThat(store.delete(deleted.id())).isFalse();
+		assertThat(store.get(deleted.id())).isEmpty();
+		assertThat(dir.resolve("originals").resolve(Long.toString(deleted.id()))).doesNotExist();
+		store.close();
+
+		DocumentStore reopened = openStore();
+		assertThat(reopened.documents()).extracting(StoredDocument::id).containsExactly(kept.id());
+		assertThat(reopened.append("alice", "text/plain", text("next")).id()).isEqualTo(deleted.id() + 1);
+		reopened.close();
+	}
+
+	@Test
+	void compactionRewritesSegmentsWithoutDisturbingReaders() throws IOException {
+		DocumentStore store = openStore();
+		ReflectionTestUtils.setField(store, "segmentMaxBytes", 4096L);
+		ReflectionTestUtils.setField(store, "minDeadRatio", 0.2);
+		StoredDocument first = store.append("alice", "text/plain", text("first"));
+		StoredDocument second = store.append("alice", "text/plain", text("second"));
+		StoredDocument third = store.append("alice", "text/plain", Map.of("title", "Third"), text("third"));
+		// Seal the first segment
+		ReflectionTestUtils.setField(store, "segmentMaxBytes", 64L);
+		StoredDocument newest = store.append("bob", "text/plain", text("a body long enough to roll the segment over"));
+		store.delete(second.id());
+		store.delete(newest.id());
+
+		Path segment = dir.resolve(String.format("segment-%06d.seg", first.segmentId()));
+		long before = Files.size(segment);
+		ByteBuffer held = store.body(third.id());
+		store.compact();
+
+		assertThat(Files.size(segment)).isLessThan(before);
+		assertThat(StandardCharsets.UTF_8.decode(held).toString()).isEqualTo("third");
+		assertThat(store.readText(third.id())).isEqualTo("third");
+		assertThat(store.get(third.id())).get().extracting(StoredDocument::recordOffset)
+				.isNotEqualTo(third.recordOffset());
+		assertThat(store.attributes(third.id())).containsEntry("title", "Third");
+		// The segment that held only the newest document is gone, its tombstone is not
+		assertThat(dir.resolve(String.format("segment-%06d.seg", newest.segmentId()))).doesNotExist();
+		store.close();
+
+		DocumentStore reopened = openStore();
+		assertThat(reopened.documents()).extracting(StoredDocument::id)
+				.containsExactlyInAnyOrder(first.id(), third.id());
+		assertThat(reopened.readText(first.id())).isEqualTo("first");
+		assertThat(reopened.append("carol", "text/plain", text("fifth")).id()).isEqualTo(newest.id() + 1);
+		reopened.close();
+	}
+
+	@Test
+	void keepsOriginalByMovingIt() throws IOException {
+		DocumentStore store = openStore();
+		ReflectionTestUtils.setField(store, "keepOriginals", true);
+		StoredDocument document = store.append("alice", "application/pdf", text("extracted"));
+		Path upload = text("%PDF-1.7 original bytes");
+
+		assertThat(store.keepOriginal(document.id(), upload)).isTrue();
+		assertThat(upload).doesNotExist();
+		assertThat(store.original(document.id())).get()
+				.satisfies(path -> assertThat(path).hasContent("%PDF-1.7 original bytes"));
+		assertThat(store.original(document.id() + 1)).isEmpty();
+		store.close();
+	}
+
+	private DocumentStore openStore() throws IOException {
+		DocumentStore store = new DocumentStore();
+		ReflectionTestUtils.setField(store, "storeDir", dir.toString());
+		ReflectionTestUtils.setField(store, "segmentMaxBytes", 64L);
+		ReflectionTestUtils.setField(store, "minDeadRatio", 0.3);
+		store.open();
+		return store;
+	}
+
+	private Path text(String content) throws IOException {
+		Path file = Files.createTempFile(dir, "body-", ".txt");
+		Files.writeString(file, content, StandardCharsets.UTF_8);
+		return file;
+	}
+}
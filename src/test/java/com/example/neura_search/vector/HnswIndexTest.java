@@ -0,0 +1,138 @@
+package com.example.neura_search.vector;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswIndexTest {
+	private static final int DIMENSION = 32;
+	private static final int COUNT = 3000;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void approximatesExactNearestNeighborsAndSurvivesReload() throws IOException {
+		Random random = new Random(7);
+		float[][] data = new float[COUNT][];
+		VectorStorage storage = new VectorStorage(dir.resolve("vectors.f32"), DIMENSION);
+		HnswIndex index = new HnswIndex(storage, 16, 100);
+		for (int i = 0; i < COUNT; i++) {
+			data[i] = randomUnitVector(random);
+			assertThat(index.add(data[i])).isEqualTo(i);
+		}
+
+		float[][] queries = new float[50][];
+		for (int q = 0; q < queries.length; q++) {
+			queries[q] = randomUnitVector(random);
+		}
+		assertThat(recallAt10(index, data, queries)).isGreaterThan(0.9);
+
+		index.save(dir.resolve("hnsw.graph"));
+		storage.close();
+
+		VectorStorage reopenedStorage = new VectorStorage(dir.resolve("vectors.f32"), DIMENSION);
+		HnswIndex reopened = new HnswIndex(reopenedStorage, 16, 100);
+		assertThat(reopened.load(dir.resolve("hnsw.graph"))).isTrue();
+		assertThat(reopened.size()).isEqualTo(COUNT);
+		assertThat(recallAt10(reopened, data, queries)).isGreaterThan(0.9);
+		reopenedStorage.close();
+	}
+
+	@Test
+	void findsNearestNeighborsWhenOnlyOnePercentIsAccepted() throws IOException {
+		Random random = new Random(11);
+		float[][] data = new float[COUNT][];
+		VectorStorage storage = new VectorStorage(dir.resolve("vectors.f32"), DIMENSION);
+		HnswIndex index = new HnswIndex(storage, 16, 100);
+		for (int i = 0; i < COUNT; i++) {
+			data[i] = randomUnitVector(random);
+			index.add(data[i]);
+		}
+
+		int found = 0;
+		int queries = 50;
+		for (int q = 0; q < queries; q++) {
+			float[] query = randomUnitVector(random);
+			List<Integer> exact = IntStream.range(0, COUNT).filter(i -> i % 100 == 0).boxed()
+					.sorted(Comparator.comparingDouble((Integer i) -> dot(data[i], query)).reversed())
+					.limit(10)
+					.toList();
+			List<HnswIndex.Result> approximate = index.search(query, 10, 64, node -> node % 100 == 0);
+			assertThat(approximate).hasSize(10).allMatch(result -> result.node() % 100 == 0);
+			found += (int) approximate.stream().map(HnswIndex.Result::node).filter(exact::contains).count();
+		}
+		assertThat(found / (10.0 * queries)).isGreaterThan(0.9);
+		storage.close();
+	}
+
+	@Test
+	void ranksATinyReadableSetExactlyWithoutWalkingTheGraph() throws IOException {
+		Random random = new Random(13);
+		float[][] data = new float[COUNT][];
+		VectorStorage storage = new VectorStorage(dir.resolve("vectors.f32"), DIMENSION);
+		HnswIndex index = new HnswIndex(storage, 16, 100);
+		for (int i = 0; i < COUNT; i++) {
+			data[i] = randomUnitVector(random);
+			index.add(data[i]);
+		}
+
+		int[] readable = {17, 1500, 2999};
+		float[] query = randomUnitVector(random);
+		List<Integer> exact = IntStream.of(readable).boxed()
+				.sorted(Comparator.comparingDouble((Integer i) -> dot(data[i], query)).reversed())
+				.toList();
+		assertThat(index.searchExact(query, 10, readable)).extracting(HnswIndex.Result::node)
+				.containsExactlyElementsOf(exact);
+		assertThat(index.searchExact(query, 2, readable)).extracting(HnswIndex.Result::node)
+				.containsExactlyElementsOf(exact.subList(0, 2));
+		// Nodes beyond the graph are not scored
+		assertThat(index.searchExact(query, 10, new int[]{COUNT})).isEmpty();
+		storage.close();
+	}
+
+	private static double recallAt10(HnswIndex index, float[][] data, float[][] queries) {
+		int found = 0;
+		for (float[] query : queries) {
+			List<Integer> exact = IntStream.range(0, data.length).boxed()
+					.sorted(Comparator.comparingDouble((Integer i) -> dot(data[i], query)).reversed())
+					.limit(10)
+					.toList();
+			List<Integer> approximate = index.search(query, 10, 64, node -> true).stream()
+					.map(HnswIndex.Result::node)
+					.toList();
+			found += (int) approximate.stream().filter(exact::contains).count();
+		}
+		return found / (10.0 * queries.length);
+	}
+
+	private static float[] randomUnitVector(Random random) {
+		float[] vector = new float[DIMENSION];
+		double norm = 0;
+		for (int i = 0; i < DIMENSION; i++) {
+			vector[i] = (float) random.nextGaussian();
+			norm += vector[i] * vector[i];
+		}
+		float scale = (float) (1 / Math.sqrt(norm));
+		for (int i = 0; i < DIMENSION; i++) {
+			vector[i] *= scale;
+		}
+		return vector;
+	}
+
+	private static float dot(float[] a, float[] b) {
+		float sum = 0;
+		for (int i = 0; i < a.length; i++) {
+			sum += a[i] * b[i];
+		}
+		return sum;
+	}
+}